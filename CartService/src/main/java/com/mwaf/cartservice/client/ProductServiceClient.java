@@ -4,10 +4,17 @@ import com.mwaf.cartservice.dto.ProductInfo;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
 
 @FeignClient(name = "ProductService")
 public interface ProductServiceClient {
 
     @GetMapping("/api/products/{id}/info")
     ProductInfo getProductById(@PathVariable("id") Long id);
+
+    @PostMapping("/api/products/batch")
+    List<ProductInfo> getProductsByIds(@RequestBody List<Long> ids);
 } 
\ No newline at end of file
@@ -3,12 +3,13 @@ package com.mwaf.cartservice.controller;
 import com.mwaf.cartservice.dto.CartItemRequest;
 import com.mwaf.cartservice.dto.CartResponse;
 import com.mwaf.cartservice.service.CartService;
-import com.mwaf.cartservice.util.JwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -20,11 +21,9 @@ import java.util.Map;
 public class CartController {
 
     private final CartService cartService;
-    private final JwtUtil jwtUtil;
 
-    public CartController(CartService cartService, JwtUtil jwtUtil) {
+    public CartController(CartService cartService) {
         this.cartService = cartService;
-        this.jwtUtil = jwtUtil;
     }
 
     @GetMapping
@@ -80,17 +79,11 @@ public class CartController {
     }
 
     private Long getUserIdFromRequest(HttpServletRequest request) {
-        // First try to get user ID from Gateway Service headers
-        String userIdHeader = request.getHeader("X-User-Id");
-        if (userIdHeader != null && !userIdHeader.isEmpty()) {
-            return Long.parseLong(userIdHeader);
-        }
-        
-        // Fallback to JWT token extraction (for direct service calls)
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            return Long.parseLong(jwtUtil.getUserId(token));
+        // JwtAuthenticationFilter has already verified the caller, either from the
+        // gateway's signed identity headers or from the JWT itself
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getName() != null) {
+            return Long.parseLong(authentication.getName());
         }
         
         throw new RuntimeException("No valid user ID found in request");
@@ -0,0 +1,17 @@
+package com.mwaf.cartservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductChangedEvent {
+    private Long productId;
+    private ChangeType changeType;
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+}
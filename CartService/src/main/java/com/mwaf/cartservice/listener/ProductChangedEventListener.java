@@ -0,0 +1,26 @@
+package com.mwaf.cartservice.listener;
+
+import com.mwaf.cartservice.event.ProductChangedEvent;
+import com.mwaf.cartservice.service.ProductInfoCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductChangedEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductChangedEventListener.class);
+
+    private final ProductInfoCache productInfoCache;
+
+    public ProductChangedEventListener(ProductInfoCache productInfoCache) {
+        this.productInfoCache = productInfoCache;
+    }
+
+    @RabbitListener(queues = "#{productChangedQueue.name}")
+    public void handleProductChanged(ProductChangedEvent event) {
+        logger.debug("Invalidating cached product {} after {}", event.getProductId(), event.getChangeType());
+        productInfoCache.invalidate(event.getProductId());
+    }
+}
@@ -1,6 +1,8 @@
 package com.mwaf.cartservice.security;
 
+import com.mwaf.cartservice.util.IdentityAssertion;
 import com.mwaf.cartservice.util.JwtUtil;
+import com.mwaf.cartservice.util.TokenClaims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,6 +16,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Component
@@ -22,18 +25,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private IdentityAssertion identityAssertion;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        // First check if request comes from Gateway Service (has X-User-Id header)
-        String userIdHeader = request.getHeader("X-User-Id");
-        if (userIdHeader != null && !userIdHeader.isEmpty()) {
-            // Request comes from Gateway Service, create authentication
-            List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
-            UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(userIdHeader, null, authorities);
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        // First check if request comes from Gateway Service with a signed identity
+        Optional<TokenClaims> forwarded = identityAssertion.verify(request);
+        if (forwarded.isPresent()) {
+            authenticate(forwarded.get());
             filterChain.doFilter(request, response);
             return;
         }
@@ -52,21 +54,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             // Extract user information from token
-            String userId = jwtUtil.getUserId(token);
-            List<String> roles = jwtUtil.getRoles(token);
-
-            // Convert roles to Spring Security authorities
-            List<SimpleGrantedAuthority> authorities = roles.stream()
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
-
-            // Create authentication token
-            UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(userId, null, authorities);
-
-            // Set the authentication in the SecurityContext
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-
+            TokenClaims claims = jwtUtil.verify(token)
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid or expired token"));
+            authenticate(claims);
         } catch (Exception e) {
             // If token validation fails, clear the security context
             SecurityContextHolder.clearContext();
@@ -75,4 +65,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Continue with the filter chain
         filterChain.doFilter(request, response);
     }
+
+    private void authenticate(TokenClaims claims) {
+        // Convert roles to Spring Security authorities
+        List<SimpleGrantedAuthority> authorities = claims.roles().stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(claims.userId(), null, authorities);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
 } 
\ No newline at end of file
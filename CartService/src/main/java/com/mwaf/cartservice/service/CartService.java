@@ -1,6 +1,5 @@
 package com.mwaf.cartservice.service;
 
-import com.mwaf.cartservice.client.ProductServiceClient;
 import com.mwaf.cartservice.dto.CartResponse;
 import com.mwaf.cartservice.dto.CartItemResponse;
 import com.mwaf.cartservice.dto.ProductInfo;
@@ -15,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,15 +22,15 @@ public class CartService {
 
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
-    private final ProductServiceClient productServiceClient;
+    private final ProductInfoLoader productInfoLoader;
     
     @PersistenceContext
     private EntityManager entityManager;
 
-    public CartService(CartRepository cartRepository, CartItemRepository cartItemRepository, ProductServiceClient productServiceClient) {
+    public CartService(CartRepository cartRepository, CartItemRepository cartItemRepository, ProductInfoLoader productInfoLoader) {
         this.cartRepository = cartRepository;
         this.cartItemRepository = cartItemRepository;
-        this.productServiceClient = productServiceClient;
+        this.productInfoLoader = productInfoLoader;
     }
 
     @Transactional
@@ -48,7 +48,7 @@ public class CartService {
     @Transactional
     public CartResponse addItemToCart(Long userId, Long productId, Integer quantity) {
         // Validate product and stock
-        ProductInfo productInfo = productServiceClient.getProductById(productId);
+        ProductInfo productInfo = productInfoLoader.get(productId);
         if (productInfo.getStockQuantity() < quantity) {
             throw new RuntimeException("Insufficient stock. Available: " + productInfo.getStockQuantity() + ", Requested: " + quantity);
         }
@@ -69,7 +69,7 @@ public class CartService {
             cartItemRepository.save(newItem);
         }
 
-        return buildCartResponse(cart);
+        return buildCartResponse(cart, Map.of(productId, productInfo));
     }
 
     @Transactional
@@ -88,7 +88,7 @@ public class CartService {
         }
 
         // Validate product and stock
-        ProductInfo productInfo = productServiceClient.getProductById(item.getProductId());
+        ProductInfo productInfo = productInfoLoader.get(item.getProductId());
         if (productInfo.getStockQuantity() < quantity) {
             throw new RuntimeException("Insufficient stock. Available: " + productInfo.getStockQuantity() + ", Requested: " + quantity);
         }
@@ -96,7 +96,7 @@ public class CartService {
         item.setQuantity(quantity);
         cartItemRepository.save(item);
 
-        return buildCartResponse(cart);
+        return buildCartResponse(cart, Map.of(item.getProductId(), productInfo));
     }
 
     @Transactional
@@ -168,14 +168,18 @@ public class CartService {
     @Transactional
     public CartResponse refreshPrices(Long userId) {
         Cart cart = getOrCreateCartEntity(userId);
+        Map<Long, ProductInfo> products = loadProducts(cart, Map.of());
         
         for (CartItem item : cart.getItems()) {
-            ProductInfo productInfo = productServiceClient.getProductById(item.getProductId());
+            ProductInfo productInfo = products.get(item.getProductId());
+            if (productInfo == null) {
+                throw new RuntimeException("Product with ID " + item.getProductId() + " is not available");
+            }
             item.setUnitPrice(productInfo.getPrice());
             cartItemRepository.save(item);
         }
 
-        return buildCartResponse(cart);
+        return buildCartResponse(cart, products);
     }
 
     private Cart getOrCreateCartEntity(Long userId) {
@@ -187,13 +191,26 @@ public class CartService {
                 });
     }
 
+    private Map<Long, ProductInfo> loadProducts(Cart cart, Map<Long, ProductInfo> known) {
+        List<Long> productIds = cart.getItems().stream()
+                .map(CartItem::getProductId)
+                .collect(Collectors.toList());
+        return productInfoLoader.load(productIds, known);
+    }
+
     private CartResponse buildCartResponse(Cart cart) {
+        return buildCartResponse(cart, Map.of());
+    }
+
+    // knownProducts holds product details already fetched earlier in the same request
+    private CartResponse buildCartResponse(Cart cart, Map<Long, ProductInfo> knownProducts) {
         CartResponse response = new CartResponse();
         response.setId(cart.getId());
         response.setUserId(cart.getUserId());
 
+        Map<Long, ProductInfo> products = loadProducts(cart, knownProducts);
         List<CartItemResponse> itemResponses = cart.getItems().stream()
-                .map(this::buildCartItemResponse)
+                .map(item -> buildCartItemResponse(item, products.get(item.getProductId())))
                 .collect(Collectors.toList());
 
         response.setItems(itemResponses);
@@ -212,15 +229,13 @@ public class CartService {
         return response;
     }
 
-    private CartItemResponse buildCartItemResponse(CartItem item) {
+    private CartItemResponse buildCartItemResponse(CartItem item, ProductInfo productInfo) {
         CartItemResponse response = new CartItemResponse();
         response.setId(item.getId());
         response.setProductId(item.getProductId());
         response.setQuantity(item.getQuantity());
         
-        // Get product information from ProductService
-        try {
-            ProductInfo productInfo = productServiceClient.getProductById(item.getProductId());
+        if (productInfo != null) {
             response.setProductName(productInfo.getName());
             response.setImageUrl(productInfo.getImageUrl());
             response.setStockQuantity(productInfo.getStockQuantity());
@@ -231,7 +246,7 @@ public class CartService {
             } else {
                 response.setUnitPrice(item.getUnitPrice());
             }
-        } catch (Exception e) {
+        } else {
             // Fallback values if ProductService is unavailable
             response.setProductName("Product not available");
             response.setImageUrl("/placeholder-product.jpg");
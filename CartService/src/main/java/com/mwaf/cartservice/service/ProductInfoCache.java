@@ -0,0 +1,55 @@
+package com.mwaf.cartservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mwaf.cartservice.dto.ProductInfo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Bounded in-process copy of product details fetched from ProductService.
+ * Entries are dropped as soon as ProductService announces a change; the TTL
+ * only matters for stock quantity, which changes on every order without an
+ * event and is re-validated at checkout anyway.
+ *
+ * Hit, miss and eviction counts are exported as the {@code cache.*} meters
+ * tagged {@code cache=productInfo}.
+ */
+@Component
+public class ProductInfoCache {
+
+    private final Cache<Long, ProductInfo> cache;
+
+    public ProductInfoCache(@Value("${cart.product-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${cart.product-cache.ttl-seconds:30}") long ttlSeconds,
+                            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "productInfo");
+    }
+
+    public ProductInfo getIfPresent(Long productId) {
+        return cache.getIfPresent(productId);
+    }
+
+    public Map<Long, ProductInfo> getAllPresent(Collection<Long> productIds) {
+        return cache.getAllPresent(productIds);
+    }
+
+    public void put(Long productId, ProductInfo productInfo) {
+        cache.put(productId, productInfo);
+    }
+
+    public void invalidate(Long productId) {
+        cache.invalidate(productId);
+    }
+}
@@ -0,0 +1,103 @@
+package com.mwaf.cartservice.service;
+
+import com.mwaf.cartservice.client.ProductServiceClient;
+import com.mwaf.cartservice.dto.ProductInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Resolves the product details needed to render a cart. Ids not already in
+ * {@link ProductInfoCache} are fetched with one batch call; if that fails, they are fetched individually in
+ * parallel on virtual threads. Products whose lookup fails are simply absent
+ * from the result so callers can fall back to placeholder values.
+ */
+@Component
+public class ProductInfoLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductInfoLoader.class);
+
+    private final ProductServiceClient productServiceClient;
+    private final ProductInfoCache productInfoCache;
+
+    public ProductInfoLoader(ProductServiceClient productServiceClient, ProductInfoCache productInfoCache) {
+        this.productServiceClient = productServiceClient;
+        this.productInfoCache = productInfoCache;
+    }
+
+    /**
+     * Single-product lookup through the cache. Unlike {@link #load}, a failed
+     * fetch propagates so callers can reject the request.
+     */
+    public ProductInfo get(Long productId) {
+        ProductInfo cached = productInfoCache.getIfPresent(productId);
+        if (cached != null) {
+            return cached;
+        }
+        ProductInfo info = productServiceClient.getProductById(productId);
+        if (info != null) {
+            productInfoCache.put(productId, info);
+        }
+        return info;
+    }
+
+    /**
+     * @param productIds ids to resolve
+     * @param known      product details already loaded earlier in the same request
+     */
+    public Map<Long, ProductInfo> load(Collection<Long> productIds, Map<Long, ProductInfo> known) {
+        Map<Long, ProductInfo> result = new HashMap<>(known);
+        List<Long> uncached = productIds.stream()
+                .distinct()
+                .filter(id -> !result.containsKey(id))
+                .toList();
+        result.putAll(productInfoCache.getAllPresent(uncached));
+        List<Long> missing = uncached.stream()
+                .filter(id -> !result.containsKey(id))
+                .toList();
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, ProductInfo> fetched = new HashMap<>();
+        try {
+            for (ProductInfo info : productServiceClient.getProductsByIds(missing)) {
+                fetched.put(info.getId(), info);
+            }
+        } catch (Exception e) {
+            logger.warn("Batch product lookup failed, falling back to per-product fetches: {}", e.getMessage());
+            fetched.putAll(fetchConcurrently(missing));
+        }
+        fetched.forEach(productInfoCache::put);
+        result.putAll(fetched);
+        return result;
+    }
+
+    private Map<Long, ProductInfo> fetchConcurrently(List<Long> productIds) {
+        Map<Long, ProductInfo> fetched = new ConcurrentHashMap<>();
+        // close() waits for every submitted fetch to finish
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Long productId : productIds) {
+                executor.submit(() -> {
+                    try {
+                        ProductInfo info = productServiceClient.getProductById(productId);
+                        if (info != null) {
+                            fetched.put(productId, info);
+                        }
+                    } catch (Exception e) {
+                        logger.warn("Failed to fetch product {}: {}", productId, e.getMessage());
+                    }
+                });
+            }
+        }
+        return fetched;
+    }
+}
@@ -0,0 +1,85 @@
+package com.mwaf.cartservice.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Checks the identity headers signed by the gateway. A valid assertion lets the
+ * request be authenticated from {@code X-User-Id}, {@code X-Customer-Id} and
+ * {@code X-User-Roles} without touching the JWT; requests without one (direct
+ * calls to this service) still go through {@link JwtUtil}.
+ */
+@Component
+public class IdentityAssertion {
+
+    public static final String HEADER = "X-Identity-Assertion";
+
+    private final ThreadLocal<Mac> macs;
+
+    public IdentityAssertion(@Value("${gateway.identity.secret:${jwt.secret}}") String base64Secret) {
+        SecretKeySpec key = new SecretKeySpec(Base64.getDecoder().decode(base64Secret), "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    /**
+     * @return the forwarded identity, or empty if the request carries no
+     *         assertion or it is forged or expired
+     */
+    public Optional<TokenClaims> verify(HttpServletRequest request) {
+        String assertion = request.getHeader(HEADER);
+        String userId = request.getHeader("X-User-Id");
+        if (assertion == null || userId == null) {
+            return Optional.empty();
+        }
+        int dot = assertion.indexOf('.');
+        if (dot <= 0) {
+            return Optional.empty();
+        }
+
+        long expiresAt;
+        byte[] signature;
+        try {
+            expiresAt = Long.parseLong(assertion, 0, dot, 10);
+            signature = Base64.getUrlDecoder().decode(assertion.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (expiresAt <= Instant.now().getEpochSecond()) {
+            return Optional.empty();
+        }
+
+        String customerId = request.getHeader("X-Customer-Id");
+        String roles = request.getHeader("X-User-Roles");
+        String payload = userId + '\n' + customerId + '\n' + (roles == null ? "" : roles) + '\n' + expiresAt;
+        byte[] expected = macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        if (!MessageDigest.isEqual(expected, signature)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new TokenClaims(
+                userId,
+                customerId == null || "null".equals(customerId) ? null : Long.valueOf(customerId),
+                roles == null || roles.isEmpty() ? List.of() : Arrays.asList(roles.split(",")),
+                Instant.ofEpochSecond(expiresAt)));
+    }
+}
@@ -0,0 +1,8 @@
+package com.mwaf.cartservice.util;
+
+import java.time.Instant;
+import java.util.List;
+
+// The claims this service reads from a verified JWT
+public record TokenClaims(String userId, Long customerId, List<String> roles, Instant expiresAt) {
+}
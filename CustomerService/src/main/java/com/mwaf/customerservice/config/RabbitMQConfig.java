@@ -15,6 +15,9 @@ public class RabbitMQConfig {
     public static final String USER_REGISTERED_QUEUE = "user-registered-queue";
     public static final String ROUTING_KEY = "auth.user.registered";
 
+    public static final String CUSTOMER_EXCHANGE = "customer-exchange";
+    public static final String CUSTOMER_CHANGED_ROUTING_KEY = "customer.changed";
+
     // DLQ Constants
     public static final String DLX_EXCHANGE = "dlx.exchange";
     public static final String USER_REGISTERED_DLQ = "user-registered-dlq";
@@ -33,6 +36,11 @@ public class RabbitMQConfig {
                 .build();
     }
 
+    @Bean
+    public TopicExchange customerExchange() {
+        return new TopicExchange(CUSTOMER_EXCHANGE);
+    }
+
     // DLQ Beans
     @Bean
     public TopicExchange deadLetterExchange() {
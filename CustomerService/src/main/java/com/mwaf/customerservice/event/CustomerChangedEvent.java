@@ -0,0 +1,21 @@
+package com.mwaf.customerservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Carries the contact fields other services cache, so consumers can update in place
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerChangedEvent {
+    private Long customerId;
+    private Long userId;
+    private String email;
+    private String name;
+    private ChangeType changeType;
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+}
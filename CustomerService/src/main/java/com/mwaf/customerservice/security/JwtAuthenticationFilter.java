@@ -1,6 +1,8 @@
 package com.mwaf.customerservice.security;
 
+import com.mwaf.customerservice.util.IdentityAssertion;
 import com.mwaf.customerservice.util.JwtUtil;
+import com.mwaf.customerservice.util.TokenClaims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,6 +16,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -23,6 +26,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private IdentityAssertion identityAssertion;
+
     /* ---------- 1.  Skip JWT processing for public endpoints ---------- */
 
     private static final Pattern POST_CUSTOMER      = Pattern.compile("^/api/customers$");
@@ -55,30 +61,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain)
             throws ServletException, IOException {
 
-        String authHeader = request.getHeader("Authorization");
+        // gateway-signed identity headers → no JWT parsing needed
+        Optional<TokenClaims> claims = identityAssertion.verify(request);
 
-        // No header or not a Bearer token → let Spring Security handle it later
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
-            return;
-        }
+        if (claims.isEmpty()) {
+            String authHeader = request.getHeader("Authorization");
 
-        String token = authHeader.substring(7);
+            // No header or not a Bearer token → let Spring Security handle it later
+            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+                filterChain.doFilter(request, response);
+                return;
+            }
 
-        try {
-            String userId      = jwtUtil.getUserIdFromToken(token);
-            List<String> roles = jwtUtil.getRolesFromToken(token);
+            claims = jwtUtil.verify(authHeader.substring(7));
+        }
 
-            List<SimpleGrantedAuthority> authorities = roles.stream()
+        if (claims.isPresent()) {
+            List<SimpleGrantedAuthority> authorities = claims.get().roles().stream()
                     .map(SimpleGrantedAuthority::new)
                     .collect(Collectors.toList());
 
             UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(userId, null, authorities);
+                    new UsernamePasswordAuthenticationToken(claims.get().userId(), null, authorities);
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-
-        } catch (Exception ex) {
+        } else {
             // invalid token → clear context but keep processing (Spring will reject later)
             SecurityContextHolder.clearContext();
         }
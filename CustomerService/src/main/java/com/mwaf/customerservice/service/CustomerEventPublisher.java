@@ -0,0 +1,35 @@
+package com.mwaf.customerservice.service;
+
+import com.mwaf.customerservice.config.RabbitMQConfig;
+import com.mwaf.customerservice.event.CustomerChangedEvent;
+import com.mwaf.customerservice.model.Customer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerEventPublisher {
+
+    private final AmqpTemplate amqpTemplate;
+
+    public void publish(Customer customer, CustomerChangedEvent.ChangeType changeType) {
+        publish(new CustomerChangedEvent(customer.getId(), customer.getUserId(),
+                customer.getEmail(), customer.getName(), changeType));
+    }
+
+    public void publishDeleted(Long customerId) {
+        publish(new CustomerChangedEvent(customerId, null, null, null, CustomerChangedEvent.ChangeType.DELETED));
+    }
+
+    private void publish(CustomerChangedEvent event) {
+        try {
+            amqpTemplate.convertAndSend(RabbitMQConfig.CUSTOMER_EXCHANGE, RabbitMQConfig.CUSTOMER_CHANGED_ROUTING_KEY, event);
+        } catch (Exception e) {
+            // Consumers cache contact data with a TTL, so a lost event only delays the update
+            log.warn("Failed to publish CustomerChangedEvent for customer {}: {}", event.getCustomerId(), e.getMessage());
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.util.List; import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import com.mwaf.customerservice.event.CustomerChangedEvent;
 import com.mwaf.customerservice.model.Customer;
 import com.mwaf.customerservice.repository.CustomerRepository;
 
@@ -15,8 +16,13 @@ import com.mwaf.customerservice.repository.CustomerRepository;
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private CustomerEventPublisher eventPublisher;
+
     public Customer createCustomer(Customer customer) {
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.save(customer);
+        eventPublisher.publish(saved, CustomerChangedEvent.ChangeType.CREATED);
+        return saved;
     }
 
     public Optional<Customer> getCustomerById(Long id) {
@@ -34,11 +40,14 @@ import com.mwaf.customerservice.repository.CustomerRepository;
         customer.setEmail(customerDetails.getEmail());
         customer.setPhone(customerDetails.getPhone());
         customer.setAddress(customerDetails.getAddress());
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.save(customer);
+        eventPublisher.publish(saved, CustomerChangedEvent.ChangeType.UPDATED);
+        return saved;
     }
 
     public void deleteCustomer(Long id) {
         customerRepository.deleteById(id);
+        eventPublisher.publishDeleted(id);
     }
 
     public Optional<Customer> findByUserId(Long userId) {
@@ -1,59 +1,104 @@
 package com.mwaf.customerservice.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Verifies JWTs with a parser built once at startup and caches the extracted
+ * claims per token until the token's own expiry, so a client reusing its token
+ * is only parsed and HMAC-checked on first sight.
+ */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String base64Secret;
+    private final JwtParser parser;
 
-    private Key getSigningKey() {
-        byte[] decodedKey = Decoders.BASE64.decode(base64Secret);
-        return Keys.hmacShaKeyFor(decodedKey);
-    }
+    // Keyed by SHA-256 of the token so raw tokens are not kept in memory
+    private final Cache<String, TokenClaims> claimsCache;
+
+    public JwtUtil(@Value("${jwt.secret}") String base64Secret,
+                   @Value("${jwt.claims-cache.maximum-size:10000}") long claimsCacheSize) {
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)))
+                .build();
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(new Expiry<String, TokenClaims>() {
+                    @Override
+                    public long expireAfterCreate(String key, TokenClaims claims, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), claims.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, TokenClaims claims, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, claims, currentTime);
+                    }
 
-    public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+                    @Override
+                    public long expireAfterRead(String key, TokenClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
-    public String getUserIdFromToken(String token) {
+    /**
+     * Verifies signature and expiry and extracts the claims in a single parse.
+     *
+     * @return the claims, or empty if the token is malformed, forged or expired
+     */
+    public Optional<TokenClaims> verify(String token) {
+        String cacheKey = hash(token);
+        TokenClaims cached = claimsCache.getIfPresent(cacheKey);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
         try {
-            Claims claims = getAllClaimsFromToken(token);
-            return claims.getSubject();
-        } catch (Exception e) {
-            return null;
+            TokenClaims claims = toTokenClaims(parser.parseClaimsJws(token).getBody());
+            // Tokens without an expiry are never cached
+            if (claims.expiresAt() != null) {
+                claimsCache.put(cacheKey, claims);
+            }
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
         }
     }
 
     @SuppressWarnings("unchecked")
-    public List<String> getRolesFromToken(String token) {
-        try {
-            Claims claims = getAllClaimsFromToken(token);
-            return claims.get("roles", List.class);
-        } catch (Exception e) {
-            return List.of();
-        }
+    private TokenClaims toTokenClaims(Claims claims) {
+        List<String> roles = claims.get("roles", List.class);
+        return new TokenClaims(
+                claims.getSubject(),
+                claims.get("customerId", Long.class),
+                roles == null ? List.of() : List.copyOf(roles),
+                claims.getExpiration() == null ? null : claims.getExpiration().toInstant());
     }
 
-    public Long getCustomerIdFromToken(String token) {
+    private String hash(String token) {
         try {
-            Claims claims = getAllClaimsFromToken(token);
-            return claims.get("customerId", Long.class);
-        } catch (Exception e) {
-            return null;
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 }
@@ -0,0 +1,74 @@
+package com.mwaf.gateways.config;
+
+import com.mwaf.gateways.utility.AccessPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Declarative access table under {@code gateway.access.rules[n]}. Patterns are
+ * slash-separated; {@code *} matches one segment and a trailing {@code **} any
+ * number of segments (including none). Paths no rule matches require
+ * authentication.
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.access")
+public class AccessPolicyProperties {
+
+    private List<RuleDefinition> rules = new ArrayList<>();
+
+    public List<RuleDefinition> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<RuleDefinition> rules) {
+        this.rules = rules;
+    }
+
+    public static class RuleDefinition {
+
+        private String pattern;
+
+        // Empty means every method
+        private List<String> methods = new ArrayList<>();
+
+        private AccessPolicy.Access access = AccessPolicy.Access.AUTHENTICATED;
+
+        // Caller needs at least one of these; empty means any authenticated user
+        private List<String> roles = new ArrayList<>();
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public AccessPolicy.Access getAccess() {
+            return access;
+        }
+
+        public void setAccess(AccessPolicy.Access access) {
+            this.access = access;
+        }
+
+        public List<String> getRoles() {
+            return roles;
+        }
+
+        public void setRoles(List<String> roles) {
+            this.roles = roles;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.mwaf.gateways.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-route request budgets under {@code gateway.rate-limit}. Routes are keyed
+ * by their gateway route id; routes without an entry use {@code default}.
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    private Limit defaultLimit = new Limit();
+    private Map<String, Limit> routes = new HashMap<>();
+
+    // Upper bound on tracked callers; idle buckets are dropped first
+    private long maxBuckets = 100_000;
+    private long idleSeconds = 300;
+
+    public Limit getDefault() {
+        return defaultLimit;
+    }
+
+    public void setDefault(Limit defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public Map<String, Limit> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Limit> routes) {
+        this.routes = routes;
+    }
+
+    public long getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(long maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    public long getIdleSeconds() {
+        return idleSeconds;
+    }
+
+    public void setIdleSeconds(long idleSeconds) {
+        this.idleSeconds = idleSeconds;
+    }
+
+    public static class Limit {
+
+        private double ratePerSecond = 50;
+        private int burst = 100;
+
+        public double getRatePerSecond() {
+            return ratePerSecond;
+        }
+
+        public void setRatePerSecond(double ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.mwaf.gateways.event;
+
+// Published by ProductService on product-exchange whenever a product is created, updated or deleted
+public class ProductChangedEvent {
+
+    private Long productId;
+    private ChangeType changeType;
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+    public ProductChangedEvent() {
+    }
+
+    public ProductChangedEvent(Long productId, ChangeType changeType) {
+        this.productId = productId;
+        this.changeType = changeType;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public void setChangeType(ChangeType changeType) {
+        this.changeType = changeType;
+    }
+}
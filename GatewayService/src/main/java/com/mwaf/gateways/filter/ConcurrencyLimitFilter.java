@@ -0,0 +1,70 @@
+package com.mwaf.gateways.filter;
+
+import com.mwaf.gateways.utility.ConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Caps in-flight requests per downstream service using {@link ConcurrencyLimiter}
+ * and answers 503 immediately when a service is at its limit. Runs after the
+ * response cache, so only requests that actually go upstream take a slot.
+ */
+@Component
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final MeterRegistry meterRegistry;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiter concurrencyLimiter, MeterRegistry meterRegistry) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        // WebSocket sessions are long-lived; their duration says nothing about load
+        if (route == null || route.getUri().getHost() == null
+                || "websocket".equalsIgnoreCase(exchange.getRequest().getHeaders().getUpgrade())) {
+            return chain.filter(exchange);
+        }
+
+        String service = route.getUri().getHost();
+        ConcurrencyLimiter.Limit limit = concurrencyLimiter.forService(service);
+        int inFlightAtStart = limit.tryAcquire();
+        if (inFlightAtStart < 0) {
+            meterRegistry.counter("gateway.admission.rejected", "reason", "concurrency",
+                    "route", route.getId()).increment();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return response.setComplete();
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            limit.release();
+            // A client hanging up says nothing about the service's health
+            if (signal != SignalType.CANCEL) {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                boolean failed = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+                limit.onSample(System.nanoTime() - start, inFlightAtStart, failed);
+            }
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return 0;
+    }
+}
@@ -1,10 +1,14 @@
 package com.mwaf.gateways.filter;
 
+import com.mwaf.gateways.utility.AccessPolicy;
+import com.mwaf.gateways.utility.IdentityAssertion;
 import com.mwaf.gateways.utility.JwtUtil;
+import com.mwaf.gateways.utility.TokenClaims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
@@ -13,6 +17,7 @@ import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
@@ -20,41 +25,30 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
     @Autowired
     private JwtUtil jwtUtil;
 
-    // Define public endpoints that don't require authentication
-    private final List<String> publicEndpoints = List.of(
-            "/api/auth/register",
-            "/api/auth/login",
-            "/api/auth/admin/register",
-            "/ws");
+    @Autowired
+    private IdentityAssertion identityAssertion;
+
+    @Autowired
+    private AccessPolicy accessPolicy;
 
-    // Define endpoints that are publicly readable but require auth for
-    // modifications
-    private final List<String> publicReadEndpoints = List.of(
-            "/api/products");
+    // Identity headers are only ever set by this filter; client-supplied
+    // copies are dropped so they cannot impersonate another user downstream
+    private static final List<String> identityHeaders = List.of(
+            "X-User-Id", "X-Customer-Id", "X-User-Roles", IdentityAssertion.HEADER);
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        exchange = stripIdentityHeaders(exchange);
         ServerHttpRequest request = exchange.getRequest();
-        String path = request.getPath().toString();
-        String method = request.getMethod().toString();
-
-        System.out.println("Gateway Filter matching path: " + path);
-
-        // Skip validation for public endpoints
-        if (isPublicEndpoint(path)) {
-            System.out.println("Allowing public endpoint: " + path);
-            return chain.filter(exchange);
-        }
 
-        // Allow GET requests to public read endpoints
-        if (isPublicReadEndpoint(path) && "GET".equals(method)) {
-            System.out.println("Allowing public read endpoint: " + path);
+        // One trie lookup decides public access and the roles required below
+        AccessPolicy.Rule rule = accessPolicy.resolve(request.getPath().value(), request.getMethod());
+        if (rule.isPublic()) {
             return chain.filter(exchange);
         }
 
         // Check for Authorization header
         if (!request.getHeaders().containsKey("Authorization")) {
-            System.out.println("Rejecting request: No Auth header for method " + method + " and path " + path);
             return onError(exchange, "No Authorization header", HttpStatus.UNAUTHORIZED);
         }
 
@@ -65,26 +59,39 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
         // Extract and validate the token
         String token = authHeader.substring(7);
-        if (!jwtUtil.validateToken(token)) {
+        Optional<TokenClaims> verified = jwtUtil.verify(token);
+        if (verified.isEmpty()) {
             return onError(exchange, "Invalid or expired token", HttpStatus.UNAUTHORIZED);
         }
+        TokenClaims claims = verified.get();
+        if (!rule.permits(claims.roles())) {
+            return onError(exchange, "Insufficient permissions", HttpStatus.FORBIDDEN);
+        }
 
         // Add user info to request headers for downstream services
         ServerHttpRequest modifiedRequest = request.mutate()
-                .header("X-User-Id", jwtUtil.getUserId(token))
-                .header("X-Customer-Id", String.valueOf(jwtUtil.getCustomerId(token)))
-                .header("X-User-Roles", String.join(",", jwtUtil.getRoles(token)))
+                .header("X-User-Id", claims.userId())
+                .header("X-Customer-Id", String.valueOf(claims.customerId()))
+                .header("X-User-Roles", String.join(",", claims.roles()))
+                .header(IdentityAssertion.HEADER, identityAssertion.sign(claims))
                 .build();
 
         return chain.filter(exchange.mutate().request(modifiedRequest).build());
     }
 
-    private boolean isPublicEndpoint(String path) {
-        return publicEndpoints.stream().anyMatch(path::startsWith);
-    }
-
-    private boolean isPublicReadEndpoint(String path) {
-        return publicReadEndpoints.stream().anyMatch(path::startsWith);
+    private ServerWebExchange stripIdentityHeaders(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        boolean present = false;
+        for (int i = 0; i < identityHeaders.size() && !present; i++) {
+            present = headers.containsKey(identityHeaders.get(i));
+        }
+        if (!present) {
+            return exchange;
+        }
+        ServerHttpRequest stripped = exchange.getRequest().mutate()
+                .headers(h -> identityHeaders.forEach(h::remove))
+                .build();
+        return exchange.mutate().request(stripped).build();
     }
 
     private Mono<Void> onError(ServerWebExchange exchange, String message, HttpStatus status) {
@@ -95,6 +102,6 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
     @Override
     public int getOrder() {
-        return -1; // High priority
+        return -10; // High priority, ahead of rate limiting and the response cache
     }
 }
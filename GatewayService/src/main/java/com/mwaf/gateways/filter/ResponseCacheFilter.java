@@ -0,0 +1,167 @@
+package com.mwaf.gateways.filter;
+
+import com.mwaf.gateways.utility.ResponseCache;
+import com.mwaf.gateways.utility.ResponseCache.CachedResponse;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Serves public catalog GETs from {@link ResponseCache}. On a miss only one
+ * request per key goes upstream; concurrent requests for the same key wait
+ * for that response instead of hitting ProductService themselves.
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    private final ResponseCache responseCache;
+    private final Duration coalesceTimeout;
+
+    public ResponseCacheFilter(ResponseCache responseCache,
+                               @Value("${gateway.response-cache.coalesce-timeout-ms:5000}") long coalesceTimeoutMs) {
+        this.responseCache = responseCache;
+        this.coalesceTimeout = Duration.ofMillis(coalesceTimeoutMs);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET || !responseCache.covers(request.getPath().value())) {
+            return chain.filter(exchange);
+        }
+
+        String key = ResponseCache.key(request);
+        CachedResponse cached = responseCache.get(key);
+        if (cached != null) {
+            return writeCached(exchange, cached);
+        }
+
+        Sinks.One<Optional<CachedResponse>> sink = Sinks.one();
+        Sinks.One<Optional<CachedResponse>> leader = responseCache.joinInFlight(key, sink);
+        if (leader != null) {
+            // Fall back to our own upstream call if the leader's response was
+            // not cacheable, failed, or is taking too long
+            return leader.asMono()
+                    .timeout(coalesceTimeout, Mono.just(Optional.empty()))
+                    .flatMap(response -> response.isPresent()
+                            ? writeCached(exchange, response.get())
+                            : chain.filter(exchange));
+        }
+
+        // The client's If-None-Match goes upstream as is: a 304 passes through
+        // uncached, and a 200 means the client's copy was stale, so the body
+        // stored from it never needs a conditional answer here
+        CapturingResponse response = new CapturingResponse(exchange.getResponse(), key, sink);
+
+        return chain.filter(exchange.mutate().response(response).build())
+                .doFinally(signal -> {
+                    sink.tryEmitValue(Optional.empty());
+                    responseCache.leaveInFlight(key, sink);
+                });
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        String clientETag = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        if (cached.etag() != null && cached.etag().equals(clientETag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().setETag(cached.etag());
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().set("X-Cache", "HIT");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    @Override
+    public int getOrder() {
+        // Must wrap the response before NettyWriteResponseFilter captures it,
+        // and run after JwtAuthenticationFilter so protected routes are still checked
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final Sinks.One<Optional<CachedResponse>> sink;
+        private final long startNanos = System.nanoTime();
+
+        CapturingResponse(ServerHttpResponse delegate, String key, Sinks.One<Optional<CachedResponse>> sink) {
+            super(delegate);
+            this.key = key;
+            this.sink = sink;
+        }
+
+        // Chunked responses have no Content-Length (-1), so the size is only
+        // known while streaming: the body goes to the client as it arrives and
+        // a copy is kept until it grows past the per-entry limit
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (getStatusCode() != HttpStatus.OK || !responseCache.fits(getHeaders().getContentLength())) {
+                return super.writeWith(body);
+            }
+            getHeaders().set("X-Cache", "MISS");
+            BodyCopy copy = new BodyCopy();
+            return super.writeWith(Flux.from(body).doOnNext(copy::append))
+                    .doOnSuccess(done -> {
+                        byte[] bytes = copy.bytes();
+                        if (bytes != null) {
+                            CachedResponse stored = responseCache.store(key, getHeaders(), bytes,
+                                    System.nanoTime() - startNanos);
+                            sink.tryEmitValue(Optional.ofNullable(stored));
+                        }
+                    });
+        }
+    }
+
+    private class BodyCopy {
+
+        private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        void append(DataBuffer buffer) {
+            if (bytes == null) {
+                return;
+            }
+            if (!responseCache.fits((long) bytes.size() + buffer.readableByteCount())) {
+                bytes = null;
+                return;
+            }
+            // Reads through views, leaving the buffer's own read position for the client write
+            try (DataBuffer.ByteBufferIterator views = buffer.readableByteBuffers()) {
+                while (views.hasNext()) {
+                    ByteBuffer view = views.next();
+                    byte[] chunk = new byte[view.remaining()];
+                    view.get(chunk);
+                    bytes.write(chunk, 0, chunk.length);
+                }
+            }
+        }
+
+        // Null once the body outgrew the cache's entry limit
+        byte[] bytes() {
+            return bytes == null ? null : bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.mwaf.gateways.listener;
+
+import com.mwaf.gateways.event.ProductChangedEvent;
+import com.mwaf.gateways.utility.ResponseCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductChangedEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductChangedEventListener.class);
+
+    private final ResponseCache responseCache;
+
+    public ProductChangedEventListener(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @RabbitListener(queues = "#{productChangedQueue.name}")
+    public void handleProductChanged(ProductChangedEvent event) {
+        int purged = responseCache.purgeProduct(event.getProductId());
+        logger.debug("Purged {} cached responses after {} of product {}",
+                purged, event.getChangeType(), event.getProductId());
+    }
+}
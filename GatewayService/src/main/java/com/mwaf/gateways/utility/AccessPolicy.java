@@ -0,0 +1,191 @@
+package com.mwaf.gateways.utility;
+
+import com.mwaf.gateways.config.AccessPolicyProperties;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The gateway access table compiled into a segment trie at startup. Lookups
+ * walk the request path in place (no splitting, no regex) so classifying a
+ * request allocates nothing. When several rules match, literal segments win
+ * over {@code *}, and {@code *} wins over a trailing {@code **}.
+ */
+@Component
+public class AccessPolicy {
+
+    public enum Access {
+        PUBLIC,
+        AUTHENTICATED
+    }
+
+    public static final class Rule {
+
+        private final Access access;
+        private final String[] roles;
+
+        Rule(Access access, String[] roles) {
+            this.access = access;
+            this.roles = roles;
+        }
+
+        public boolean isPublic() {
+            return access == Access.PUBLIC;
+        }
+
+        public boolean permits(List<String> grantedRoles) {
+            if (roles.length == 0) {
+                return true;
+            }
+            for (int i = 0; i < grantedRoles.size(); i++) {
+                String granted = grantedRoles.get(i);
+                for (String required : roles) {
+                    if (required.equals(granted)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final String[] METHODS = {"GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE"};
+
+    private static final Rule DEFAULT_RULE = new Rule(Access.AUTHENTICATED, new String[0]);
+
+    private static final class Node {
+
+        private final String segment;
+        private Node[] literals = new Node[0];
+        private Node wildcard;
+        // Rules whose pattern ends at this node, and rules ending in '/**' here
+        private final Rule[] exact = new Rule[METHODS.length];
+        private final Rule[] tail = new Rule[METHODS.length];
+
+        Node(String segment) {
+            this.segment = segment;
+        }
+
+        Node literal(String segment) {
+            for (Node child : literals) {
+                if (child.segment.equals(segment)) {
+                    return child;
+                }
+            }
+            Node child = new Node(segment);
+            literals = Arrays.copyOf(literals, literals.length + 1);
+            literals[literals.length - 1] = child;
+            return child;
+        }
+
+        Node wildcard() {
+            if (wildcard == null) {
+                wildcard = new Node(null);
+            }
+            return wildcard;
+        }
+    }
+
+    private final Node root = new Node("");
+
+    public AccessPolicy(AccessPolicyProperties properties) {
+        for (AccessPolicyProperties.RuleDefinition definition : properties.getRules()) {
+            add(definition);
+        }
+    }
+
+    /**
+     * @return the rule for this request; never null
+     */
+    public Rule resolve(String path, HttpMethod method) {
+        int methodIndex = indexOf(method.name());
+        if (methodIndex < 0) {
+            return DEFAULT_RULE;
+        }
+        int start = path.startsWith("/") ? 1 : 0;
+        Rule rule = match(root, path, start, methodIndex);
+        return rule != null ? rule : DEFAULT_RULE;
+    }
+
+    private Rule match(Node node, String path, int start, int method) {
+        if (start >= path.length()) {
+            return node.exact[method] != null ? node.exact[method] : node.tail[method];
+        }
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        int length = end - start;
+        int next = end < path.length() ? end + 1 : end;
+
+        for (Node child : node.literals) {
+            if (child.segment.length() == length && path.regionMatches(start, child.segment, 0, length)) {
+                Rule rule = match(child, path, next, method);
+                if (rule != null) {
+                    return rule;
+                }
+            }
+        }
+        if (node.wildcard != null) {
+            Rule rule = match(node.wildcard, path, next, method);
+            if (rule != null) {
+                return rule;
+            }
+        }
+        return node.tail[method];
+    }
+
+    private void add(AccessPolicyProperties.RuleDefinition definition) {
+        String pattern = definition.getPattern();
+        if (pattern == null || pattern.isBlank()) {
+            throw new IllegalArgumentException("Access rule is missing a pattern");
+        }
+
+        Node node = root;
+        boolean tail = false;
+        String[] segments = pattern.startsWith("/") ? pattern.substring(1).split("/", -1) : pattern.split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if ("**".equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' must be the last segment: " + pattern);
+                }
+                tail = true;
+            } else if ("*".equals(segment)) {
+                node = node.wildcard();
+            } else {
+                node = node.literal(segment);
+            }
+        }
+
+        Rule rule = new Rule(definition.getAccess(), definition.getRoles().toArray(String[]::new));
+        Rule[] slots = tail ? node.tail : node.exact;
+        if (definition.getMethods().isEmpty()) {
+            // A method-specific rule on the same pattern takes precedence
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] == null) {
+                    slots[i] = rule;
+                }
+            }
+        } else {
+            for (String method : definition.getMethods()) {
+                int index = indexOf(method.trim().toUpperCase());
+                if (index < 0) {
+                    throw new IllegalArgumentException("Unknown HTTP method '" + method + "' in rule " + pattern);
+                }
+                slots[index] = rule;
+            }
+        }
+    }
+
+    private static int indexOf(String method) {
+        for (int i = 0; i < METHODS.length; i++) {
+            if (METHODS[i].equals(method)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,139 @@
+package com.mwaf.gateways.utility;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive cap on in-flight requests per downstream service. Latency is
+ * tracked twice: a short average over the last {@code latency-smoothing-samples}
+ * responses, and a baseline that follows it over {@code baseline-window-seconds}.
+ * While the limit is in use, it grows by one per response as long as the
+ * short average stays within {@code latency-tolerance} times the baseline,
+ * and is cut by 10% at most once per round trip when it does not or the
+ * service fails. Comparing averages means a service that mixes fast and slow
+ * endpoints is not throttled for its slow ones alone.
+ *
+ * Requests over the limit are refused at once rather than queued, so a slow
+ * service sheds load instead of tying up gateway connections and its own
+ * thread pool.
+ *
+ * Current limits are exported as {@code gateway.concurrency.limit} tagged by
+ * service.
+ */
+@Component
+public class ConcurrencyLimiter {
+
+    public final class Limit {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile int limit = initialLimit;
+        // Negative until the first successful response
+        private double shortNanos = -1;
+        private double baselineNanos = -1;
+        private long samples;
+        private long lastSampleAt = System.nanoTime();
+        private long lastDecreaseAt = System.nanoTime() - baselineWindowNanos;
+
+        /**
+         * @return the number of requests in flight before this one, or -1 if
+         *         the service is at its limit
+         */
+        public int tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= limit) {
+                    return -1;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return current;
+                }
+            }
+        }
+
+        public void release() {
+            inFlight.decrementAndGet();
+        }
+
+        /**
+         * @param inFlightAtStart value returned by {@link #tryAcquire()}
+         * @param failed          upstream error or 5xx, counted as overload
+         */
+        public synchronized void onSample(long latencyNanos, int inFlightAtStart, boolean failed) {
+            long now = System.nanoTime();
+            // Failures can be fast and would drag both averages down
+            if (!failed) {
+                samples++;
+                if (baselineNanos < 0) {
+                    shortNanos = latencyNanos;
+                    baselineNanos = latencyNanos;
+                } else {
+                    shortNanos += shortAlpha * (latencyNanos - shortNanos);
+                    // Weighted by elapsed time, so the baseline spans the same window at any request rate;
+                    // a plain running mean until then, so it does not start out as whichever response came first
+                    double baselineAlpha = Math.max(1.0 / samples,
+                            1 - Math.exp(-(double) (now - lastSampleAt) / baselineWindowNanos));
+                    baselineNanos += baselineAlpha * (latencyNanos - baselineNanos);
+                }
+                lastSampleAt = now;
+            }
+
+            // Only adjust when the current limit is actually being used
+            if (inFlightAtStart * 2 < limit) {
+                return;
+            }
+            boolean overloaded = failed || shortNanos > baselineNanos * latencyTolerance;
+            if (!overloaded) {
+                limit = Math.min(maxLimit, limit + 1);
+            } else if (now - lastDecreaseAt >= shortNanos) {
+                // Responses to the same burst are one signal, not one cut each
+                limit = Math.max(minLimit, (int) (limit * 0.9));
+                lastDecreaseAt = now;
+            }
+        }
+
+        public int limit() {
+            return limit;
+        }
+    }
+
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final long baselineWindowNanos;
+    private final double shortAlpha;
+
+    public ConcurrencyLimiter(MeterRegistry meterRegistry,
+                              @Value("${gateway.concurrency.initial-limit:50}") int initialLimit,
+                              @Value("${gateway.concurrency.min-limit:5}") int minLimit,
+                              @Value("${gateway.concurrency.max-limit:500}") int maxLimit,
+                              @Value("${gateway.concurrency.latency-tolerance:2.0}") double latencyTolerance,
+                              @Value("${gateway.concurrency.baseline-window-seconds:30}") long baselineWindowSeconds,
+                              @Value("${gateway.concurrency.latency-smoothing-samples:20}") int smoothingSamples) {
+        this.meterRegistry = meterRegistry;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.baselineWindowNanos = baselineWindowSeconds * 1_000_000_000L;
+        this.shortAlpha = 2.0 / (smoothingSamples + 1);
+    }
+
+    public Limit forService(String serviceId) {
+        return limits.computeIfAbsent(serviceId, id -> {
+            Limit limit = new Limit();
+            Gauge.builder("gateway.concurrency.limit", limit, Limit::limit)
+                    .tag("service", id)
+                    .register(meterRegistry);
+            return limit;
+        });
+    }
+}
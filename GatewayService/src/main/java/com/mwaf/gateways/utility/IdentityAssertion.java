@@ -0,0 +1,52 @@
+package com.mwaf.gateways.utility;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Signs the identity headers the gateway forwards downstream. The assertion is
+ * {@code <expiresEpochSeconds>.<base64url HMAC-SHA256>} over the user id,
+ * customer id, roles and expiry, so a service can trust the headers with one
+ * short HMAC instead of re-parsing the JWT.
+ */
+@Component
+public class IdentityAssertion {
+
+    public static final String HEADER = "X-Identity-Assertion";
+
+    private static final Duration UNBOUNDED_TOKEN_ASSERTION_TTL = Duration.ofMinutes(5);
+
+    private final ThreadLocal<Mac> macs;
+
+    public IdentityAssertion(@Value("${gateway.identity.secret:${jwt.secret}}") String base64Secret) {
+        SecretKeySpec key = new SecretKeySpec(Base64.getDecoder().decode(base64Secret), "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    public String sign(TokenClaims claims) {
+        // Tokens without exp still get a short-lived assertion
+        long expiresAt = claims.expiresAt() != null
+                ? claims.expiresAt().getEpochSecond()
+                : Instant.now().plus(UNBOUNDED_TOKEN_ASSERTION_TTL).getEpochSecond();
+        String payload = claims.userId() + '\n' + claims.customerId() + '\n'
+                + String.join(",", claims.roles()) + '\n' + expiresAt;
+        byte[] signature = macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return expiresAt + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+}
@@ -0,0 +1,67 @@
+package com.mwaf.gateways.utility;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mwaf.gateways.config.RateLimitProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets per route and caller, kept in memory with no external store.
+ *
+ * Each bucket is a single {@link AtomicLong} holding the GCRA "theoretical
+ * arrival time": a request is admitted if that time is no more than
+ * {@code (burst - 1)} emission intervals ahead of now, and admitting it pushes
+ * the time forward by one interval with a CAS. This behaves exactly like a
+ * token bucket refilled at {@code ratePerSecond} with capacity {@code burst}
+ * but needs no lock and no refill task.
+ */
+@Component
+public class RateLimiter {
+
+    private record Budget(long intervalNanos, long toleranceNanos) {
+    }
+
+    private final Cache<String, AtomicLong> buckets;
+    private final Map<String, Budget> routeBudgets = new ConcurrentHashMap<>();
+    private final Budget defaultBudget;
+
+    public RateLimiter(RateLimitProperties properties) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(Duration.ofSeconds(properties.getIdleSeconds()))
+                .build();
+        this.defaultBudget = budget(properties.getDefault());
+        properties.getRoutes().forEach((routeId, limit) -> routeBudgets.put(routeId, budget(limit)));
+    }
+
+    /**
+     * @return 0 if the request is admitted, otherwise the nanoseconds until
+     *         the caller's bucket has a token again
+     */
+    public long tryAcquire(String routeId, String caller) {
+        Budget budget = routeId == null ? defaultBudget : routeBudgets.getOrDefault(routeId, defaultBudget);
+        AtomicLong bucket = buckets.get(routeId + '|' + caller, key -> new AtomicLong(Long.MIN_VALUE));
+        long now = System.nanoTime();
+        while (true) {
+            long arrival = bucket.get();
+            long start = Math.max(arrival, now);
+            long ahead = start - now;
+            if (ahead > budget.toleranceNanos()) {
+                return ahead - budget.toleranceNanos();
+            }
+            if (bucket.compareAndSet(arrival, start + budget.intervalNanos())) {
+                return 0;
+            }
+        }
+    }
+
+    private static Budget budget(RateLimitProperties.Limit limit) {
+        long interval = (long) (1_000_000_000L / limit.getRatePerSecond());
+        return new Budget(interval, interval * Math.max(0, limit.getBurst() - 1));
+    }
+}
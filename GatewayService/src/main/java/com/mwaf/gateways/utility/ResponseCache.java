@@ -0,0 +1,225 @@
+package com.mwaf.gateways.utility;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gateway-side copy of public catalog responses. Entries are bounded by total
+ * body weight and by a per-entry size cap, live for the upstream
+ * {@code max-age} (or a default TTL), and are purged early when ProductService
+ * announces a product change.
+ *
+ * Hit ratio is exported through the {@code cache.*} meters tagged
+ * {@code cache=gatewayResponses}; upstream time avoided by hits is recorded in
+ * {@code gateway.response.cache.saved}.
+ */
+@Component
+public class ResponseCache {
+
+    // Rough per-entry cost of the key, headers and bookkeeping
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+    private static final String PRODUCTS_PATH = "/api/products";
+
+    public record CachedResponse(HttpHeaders headers, byte[] body, String etag, Duration ttl, long upstreamNanos) {
+    }
+
+    private final Cache<String, CachedResponse> cache;
+    private final Map<String, Sinks.One<Optional<CachedResponse>>> inFlight = new ConcurrentHashMap<>();
+    private final List<String> pathPrefixes;
+    private final int maxEntryBytes;
+    private final Duration defaultTtl;
+    private final Timer savedLatency;
+    private final Counter coalesced;
+
+    public ResponseCache(@Value("${gateway.response-cache.paths:/api/products,/api/categories}") List<String> pathPrefixes,
+                         @Value("${gateway.response-cache.max-weight-bytes:67108864}") long maxWeightBytes,
+                         @Value("${gateway.response-cache.max-entry-bytes:1048576}") int maxEntryBytes,
+                         @Value("${gateway.response-cache.default-ttl-seconds:30}") long defaultTtlSeconds,
+                         MeterRegistry meterRegistry) {
+        this.pathPrefixes = List.copyOf(pathPrefixes);
+        this.maxEntryBytes = maxEntryBytes;
+        this.defaultTtl = Duration.ofSeconds(defaultTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((String key, CachedResponse response) ->
+                        key.length() + response.body().length + ENTRY_OVERHEAD_BYTES)
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return response.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return response.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gatewayResponses");
+        this.savedLatency = Timer.builder("gateway.response.cache.saved")
+                .description("Upstream latency avoided by serving a cached response")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("gateway.response.cache.coalesced")
+                .description("Cache misses that waited for an identical in-flight upstream request")
+                .register(meterRegistry);
+    }
+
+    public boolean covers(String path) {
+        for (int i = 0; i < pathPrefixes.size(); i++) {
+            if (path.startsWith(pathPrefixes.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static String key(ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        String path = request.getPath().value();
+        return query == null ? path : path + '?' + query;
+    }
+
+    public CachedResponse get(String key) {
+        CachedResponse response = cache.getIfPresent(key);
+        if (response != null) {
+            savedLatency.record(response.upstreamNanos(), TimeUnit.NANOSECONDS);
+        }
+        return response;
+    }
+
+    /**
+     * Registers the caller as the one request that goes upstream for this key.
+     *
+     * @return null if the caller is now the leader, otherwise the sink the
+     *         current leader will complete
+     */
+    public Sinks.One<Optional<CachedResponse>> joinInFlight(String key, Sinks.One<Optional<CachedResponse>> sink) {
+        Sinks.One<Optional<CachedResponse>> leader = inFlight.putIfAbsent(key, sink);
+        if (leader != null) {
+            coalesced.increment();
+        }
+        return leader;
+    }
+
+    public void leaveInFlight(String key, Sinks.One<Optional<CachedResponse>> sink) {
+        inFlight.remove(key, sink);
+    }
+
+    public boolean fits(long contentLength) {
+        return contentLength <= maxEntryBytes;
+    }
+
+    /**
+     * Stores a 200 response unless its headers forbid shared caching.
+     *
+     * @return the stored entry, or null if the response was not cacheable
+     */
+    public CachedResponse store(String key, HttpHeaders upstreamHeaders, byte[] body, long upstreamNanos) {
+        if (body.length > maxEntryBytes || upstreamHeaders.containsKey(HttpHeaders.SET_COOKIE)) {
+            return null;
+        }
+        Duration ttl = ttlFor(upstreamHeaders.getCacheControl());
+        if (ttl == null) {
+            return null;
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(upstreamHeaders);
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        headers.remove(HttpHeaders.CONNECTION);
+        // CORS headers belong to the original caller's origin and are added per request
+        headers.keySet().removeIf(name -> name.regionMatches(true, 0, "Access-Control-", 0, "Access-Control-".length()));
+        headers.setContentLength(body.length);
+
+        CachedResponse response = new CachedResponse(headers, body,
+                upstreamHeaders.getETag(), ttl, upstreamNanos);
+        cache.put(key, response);
+        return response;
+    }
+
+    /**
+     * Drops the product's own responses plus every product listing, search and
+     * facet response, since any of them may include the changed product.
+     * Responses for other single products are kept.
+     *
+     * @return number of entries removed
+     */
+    public int purgeProduct(Long productId) {
+        int before = cache.asMap().size();
+        cache.asMap().keySet().removeIf(key -> affectedBy(key, productId));
+        return Math.max(0, before - cache.asMap().size());
+    }
+
+    private boolean affectedBy(String key, Long productId) {
+        if (!key.startsWith(PRODUCTS_PATH)) {
+            return false;
+        }
+        int start = PRODUCTS_PATH.length();
+        if (start >= key.length() || key.charAt(start) != '/') {
+            return true;
+        }
+        int end = start + 1;
+        while (end < key.length() && Character.isDigit(key.charAt(end))) {
+            end++;
+        }
+        boolean singleProduct = end > start + 1
+                && (end == key.length() || key.charAt(end) == '/' || key.charAt(end) == '?');
+        if (!singleProduct) {
+            return true;
+        }
+        return key.substring(start + 1, end).equals(String.valueOf(productId));
+    }
+
+    private Duration ttlFor(String cacheControl) {
+        if (cacheControl == null || cacheControl.isBlank()) {
+            return defaultTtl;
+        }
+        Duration maxAge = null;
+        Duration sharedMaxAge = null;
+        for (String directive : cacheControl.toLowerCase().split(",")) {
+            String d = directive.trim();
+            if (d.equals("no-store") || d.equals("no-cache") || d.equals("private")) {
+                return null;
+            }
+            if (d.startsWith("s-maxage=")) {
+                sharedMaxAge = parseSeconds(d.substring("s-maxage=".length()));
+            } else if (d.startsWith("max-age=")) {
+                maxAge = parseSeconds(d.substring("max-age=".length()));
+            }
+        }
+        Duration ttl = sharedMaxAge != null ? sharedMaxAge : maxAge != null ? maxAge : defaultTtl;
+        return ttl.isZero() || ttl.isNegative() ? null : ttl;
+    }
+
+    private Duration parseSeconds(String value) {
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
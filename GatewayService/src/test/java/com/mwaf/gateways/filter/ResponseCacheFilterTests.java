@@ -0,0 +1,154 @@
+package com.mwaf.gateways.filter;
+
+import com.mwaf.gateways.utility.ResponseCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheFilterTests {
+
+    private static final String BODY = "{\"id\":1,\"name\":\"Widget\"}";
+    private static final String ETAG = "\"p1-v1\"";
+
+    private ResponseCacheFilter filter;
+    private AtomicInteger upstreamCalls;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCache responseCache = new ResponseCache(List.of("/api/products", "/api/categories"),
+                1 << 20, 1 << 16, 30, new SimpleMeterRegistry());
+        filter = new ResponseCacheFilter(responseCache, 5000);
+        upstreamCalls = new AtomicInteger();
+    }
+
+    @Test
+    void secondGetIsServedFromCache() {
+        GatewayFilterChain upstream = upstream("max-age=0, s-maxage=30, public");
+
+        MockServerWebExchange first = get("/api/products/1");
+        filter.filter(first, upstream).block();
+        assertThat(first.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+
+        MockServerWebExchange second = get("/api/products/1");
+        filter.filter(second, upstream).block();
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void noStoreResponsesAreNotCached() {
+        // What Spring Security sends when a controller sets no Cache-Control of its own
+        GatewayFilterChain upstream = upstream("no-cache, no-store, max-age=0, must-revalidate");
+
+        filter.filter(get("/api/products/1"), upstream).block();
+        MockServerWebExchange second = get("/api/products/1");
+        filter.filter(second, upstream).block();
+
+        assertThat(second.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void conditionalMissIsAnsweredByUpstream() {
+        GatewayFilterChain upstream = upstream("max-age=0, s-maxage=30, public");
+
+        MockServerWebExchange revalidate = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/products/1").header(HttpHeaders.IF_NONE_MATCH, ETAG));
+        filter.filter(revalidate, upstream).block();
+
+        assertThat(revalidate.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void conditionalHitIsAnsweredFromCache() {
+        GatewayFilterChain upstream = upstream("max-age=0, s-maxage=30, public");
+        filter.filter(get("/api/products/1"), upstream).block();
+
+        MockServerWebExchange revalidate = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/products/1").header(HttpHeaders.IF_NONE_MATCH, ETAG));
+        filter.filter(revalidate, upstream).block();
+
+        assertThat(revalidate.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void chunkedBodyOverEntryLimitIsStreamedButNotCached() {
+        // Three chunks of 40 KB against the 64 KB entry limit, with no Content-Length
+        GatewayFilterChain upstream = chunkedUpstream(3, 40 * 1024);
+
+        MockServerWebExchange first = get("/api/products");
+        filter.filter(first, upstream).block();
+        assertThat(first.getResponse().getBodyAsString().block()).hasSize(3 * 40 * 1024);
+
+        MockServerWebExchange second = get("/api/products");
+        filter.filter(second, upstream).block();
+        assertThat(second.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void chunkedBodyWithinEntryLimitIsCached() {
+        GatewayFilterChain upstream = chunkedUpstream(3, 1024);
+
+        filter.filter(get("/api/products"), upstream).block();
+        MockServerWebExchange second = get("/api/products");
+        filter.filter(second, upstream).block();
+
+        assertThat(second.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(second.getResponse().getBodyAsString().block()).hasSize(3 * 1024);
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    private static MockServerWebExchange get(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+
+    // Stands in for ProductService behind NettyWriteResponseFilter, including its checkNotModified
+    private GatewayFilterChain upstream(String cacheControl) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            if (ETAG.equals(exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+                response.setStatusCode(HttpStatus.NOT_MODIFIED);
+                response.getHeaders().setETag(ETAG);
+                return response.setComplete();
+            }
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().set(HttpHeaders.CACHE_CONTROL, cacheControl);
+            response.getHeaders().setETag(ETAG);
+            byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+            response.getHeaders().setContentLength(body.length);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        };
+    }
+
+    private GatewayFilterChain chunkedUpstream(int chunks, int chunkSize) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().set(HttpHeaders.CACHE_CONTROL, "max-age=0, s-maxage=30, public");
+            byte[] chunk = "x".repeat(chunkSize).getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Flux.range(0, chunks)
+                    .map(i -> response.bufferFactory().wrap(chunk)));
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package com.mwaf.gateways.utility;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTests {
+
+    private ConcurrencyLimiter.Limit limit;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new SimpleMeterRegistry(), 50, 5, 500, 2.0, 30, 20);
+        limit = limiter.forService("product-service");
+    }
+
+    @Test
+    void mixedLatenciesUnderLoadDoNotShrinkTheLimit() {
+        // By-id GETs next to full catalog listings on the same service
+        for (int i = 0; i < 200; i++) {
+            long latency = i % 2 == 0 ? millis(10) : millis(500);
+            limit.onSample(latency, limit.limit(), false);
+        }
+
+        assertThat(limit.limit()).isGreaterThan(50);
+    }
+
+    @Test
+    void slowResponsesWhileIdleDoNotShrinkTheLimit() {
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(millis(10), 25, false);
+        }
+        limit.onSample(millis(5000), 1, false);
+
+        assertThat(limit.limit()).isGreaterThanOrEqualTo(50);
+    }
+
+    @Test
+    void latencyJumpCutsOncePerRoundTrip() {
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(millis(10), 25, false);
+        }
+        int before = limit.limit();
+
+        // A burst of slow responses arriving together is a single overload signal
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(millis(2000), limit.limit(), false);
+        }
+
+        assertThat(limit.limit()).isLessThan(before).isGreaterThanOrEqualTo((int) (before * 0.9));
+    }
+
+    private static long millis(long value) {
+        return TimeUnit.MILLISECONDS.toNanos(value);
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -23,6 +24,13 @@ public class RabbitMQConfig {
     public static final String ORDER_STATUS_CHANGED_QUEUE = "notification-order-status-changed-queue";
     public static final String ORDER_STATUS_CHANGED_ROUTING_KEY = "order.status.changed";
 
+    // Customer Service Constants
+    public static final String CUSTOMER_EXCHANGE = "customer-exchange";
+    public static final String CUSTOMER_CHANGED_ROUTING_KEY = "customer.changed";
+
+    // Relays WebSocket notifications between NotificationService instances
+    public static final String WS_RELAY_EXCHANGE = "notification-ws-exchange";
+
     // DLQ Constants
     public static final String DLX_EXCHANGE = "dlx.exchange";
     public static final String USER_REGISTERED_DLQ = "notification-user-registered-dlq";
@@ -89,6 +97,42 @@ public class RabbitMQConfig {
                 .with(ORDER_STATUS_CHANGED_ROUTING_KEY);
     }
 
+    // Customer Service Beans
+    @Bean
+    public TopicExchange customerExchange() {
+        return new TopicExchange(CUSTOMER_EXCHANGE);
+    }
+
+    // The contact cache is per instance, so every instance needs its own copy of each change
+    @Bean
+    public Queue customerChangedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding customerChangedBinding(Queue customerChangedQueue, TopicExchange customerExchange) {
+        return BindingBuilder.bind(customerChangedQueue)
+                .to(customerExchange)
+                .with(CUSTOMER_CHANGED_ROUTING_KEY);
+    }
+
+    // WebSocket Relay Beans
+    @Bean
+    public FanoutExchange webSocketRelayExchange() {
+        return new FanoutExchange(WS_RELAY_EXCHANGE);
+    }
+
+    // Each instance delivers to its own WebSocket sessions, so each needs every relayed message
+    @Bean
+    public Queue webSocketRelayQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding webSocketRelayBinding(Queue webSocketRelayQueue, FanoutExchange webSocketRelayExchange) {
+        return BindingBuilder.bind(webSocketRelayQueue).to(webSocketRelayExchange);
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter();
@@ -102,6 +146,8 @@ public class RabbitMQConfig {
                 com.mwaf.notificationservice.event.OrderPlacedEvent.class);
         idClassMapping.put("com.mwaf.orderservice.event.OrderStatusChangedEvent",
                 com.mwaf.notificationservice.event.OrderStatusChangedEvent.class);
+        idClassMapping.put("com.mwaf.customerservice.event.CustomerChangedEvent",
+                com.mwaf.notificationservice.event.CustomerChangedEvent.class);
 
         classMapper.setIdClassMapping(idClassMapping);
         converter.setClassMapper(classMapper);
@@ -152,13 +198,16 @@ public class RabbitMQConfig {
                 .with(DLQ_ORDER_STATUS_CHANGED_ROUTING_KEY);
     }
 
+    // Several consumers per queue, so listeners waiting on NotificationWriter share its batches
     @Bean
     public org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
-            ConnectionFactory connectionFactory) {
+            ConnectionFactory connectionFactory,
+            @Value("${notification.listener.concurrency:4}") int concurrency) {
         org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory factory = new org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(jsonMessageConverter());
         factory.setDefaultRequeueRejected(false);
+        factory.setConcurrentConsumers(concurrency);
         return factory;
     }
 }
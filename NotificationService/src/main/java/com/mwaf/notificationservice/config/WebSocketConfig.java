@@ -1,17 +1,44 @@
 package com.mwaf.notificationservice.config;
 
+import com.mwaf.notificationservice.service.WebSocketFanOut;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // Lazy because the fan-out needs the client outbound channel this configuration helps build
+    private final WebSocketFanOut fanOut;
+    private final int sendBufferSizeLimit;
+    private final int sendTimeLimitMs;
+
+    public WebSocketConfig(@Lazy WebSocketFanOut fanOut,
+                           @Value("${notification.ws.send-buffer-size-limit:524288}") int sendBufferSizeLimit,
+                           @Value("${notification.ws.send-time-limit-ms:10000}") int sendTimeLimitMs) {
+        this.fanOut = fanOut;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
+        // Notification topics are served by WebSocketFanOut; the simple broker handles the rest
         config.enableSimpleBroker("/topic");
         config.setApplicationDestinationPrefixes("/app");
     }
@@ -21,4 +48,45 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*");
     }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A session whose socket falls this far behind is closed
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit);
+        registration.setSendTimeLimit(sendTimeLimitMs);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                if (accessor == null) {
+                    return message;
+                }
+                if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())
+                        && WebSocketFanOut.isManagedDestination(accessor.getDestination())) {
+                    fanOut.subscribe(accessor.getSessionId(), accessor.getSubscriptionId(), accessor.getDestination());
+                    return null;
+                }
+                if (StompCommand.UNSUBSCRIBE.equals(accessor.getCommand())
+                        && fanOut.unsubscribe(accessor.getSessionId(), accessor.getSubscriptionId())) {
+                    return null;
+                }
+                return message;
+            }
+        });
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ExecutorChannelInterceptor() {
+            @Override
+            public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+                                            Exception ex) {
+                fanOut.afterSent(message);
+            }
+        });
+    }
 }
@@ -0,0 +1,62 @@
+package com.mwaf.notificationservice.controller;
+
+import com.mwaf.notificationservice.model.Notification;
+import com.mwaf.notificationservice.model.NotificationStatus;
+import com.mwaf.notificationservice.model.NotificationType;
+import com.mwaf.notificationservice.service.NotificationBroadcaster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Drives WebSocket broadcasts for ws-load-test.mjs; only exists with the "loadtest" profile
+@RestController
+@RequestMapping("/api/notifications/loadtest")
+@RequiredArgsConstructor
+@Profile("loadtest")
+public class LoadTestController {
+
+    private final NotificationBroadcaster broadcaster;
+
+    /**
+     * Sends {@code rounds} notifications to each user in [fromUserId, toUserId]
+     * and, if {@code admins} is set, as many to the admin topic. The content of
+     * each is its send time in epoch millis, so clients can measure latency.
+     */
+    @PostMapping("/broadcast")
+    public ResponseEntity<Map<String, Long>> broadcast(@RequestParam long fromUserId,
+                                                       @RequestParam long toUserId,
+                                                       @RequestParam(defaultValue = "1") int rounds,
+                                                       @RequestParam(defaultValue = "false") boolean admins) {
+        long sent = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (long userId = fromUserId; userId <= toUserId; userId++) {
+                broadcaster.toUser(userId, notification(userId));
+                sent++;
+            }
+            if (admins) {
+                broadcaster.toAdmins(notification(0L));
+                sent++;
+            }
+        }
+        return ResponseEntity.ok(Map.of("sent", sent));
+    }
+
+    private static Notification notification(Long userId) {
+        Notification notification = new Notification();
+        notification.setType(NotificationType.IN_APP);
+        notification.setStatus(NotificationStatus.SENT);
+        notification.setRecipientEmail("loadtest@smartstock.com");
+        notification.setRecipientUserId(userId);
+        notification.setSubject("Load test");
+        notification.setContent(String.valueOf(System.currentTimeMillis()));
+        notification.setCreatedAt(LocalDateTime.now());
+        return notification;
+    }
+}
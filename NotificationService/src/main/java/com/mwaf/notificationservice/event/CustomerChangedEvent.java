@@ -0,0 +1,20 @@
+package com.mwaf.notificationservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerChangedEvent {
+    private Long customerId;
+    private Long userId;
+    private String email;
+    private String name;
+    private ChangeType changeType;
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+}
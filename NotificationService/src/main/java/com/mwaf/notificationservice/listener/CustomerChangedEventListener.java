@@ -0,0 +1,27 @@
+package com.mwaf.notificationservice.listener;
+
+import com.mwaf.notificationservice.event.CustomerChangedEvent;
+import com.mwaf.notificationservice.service.CustomerContactCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerChangedEventListener {
+
+    private final CustomerContactCache customerContactCache;
+
+    // One consumer, so two quick changes to a customer are applied in order
+    @RabbitListener(queues = "#{customerChangedQueue.name}", concurrency = "1")
+    public void handleCustomerChanged(CustomerChangedEvent event) {
+        log.debug("Customer {} {}, refreshing cached contact", event.getCustomerId(), event.getChangeType());
+        if (event.getChangeType() == CustomerChangedEvent.ChangeType.DELETED || event.getEmail() == null) {
+            customerContactCache.invalidate(event.getCustomerId());
+        } else {
+            customerContactCache.put(event.getCustomerId(), event.getUserId(), event.getEmail());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.mwaf.notificationservice.listener;
 
 import com.mwaf.notificationservice.config.RabbitMQConfig;
 import com.mwaf.notificationservice.event.OrderStatusChangedEvent;
+import com.mwaf.notificationservice.service.CustomerContactCache;
 import com.mwaf.notificationservice.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,7 +15,7 @@ import org.springframework.stereotype.Component;
 public class OrderStatusChangedEventListener {
 
     private final NotificationService notificationService;
-    private final com.mwaf.notificationservice.client.CustomerServiceClient customerServiceClient;
+    private final CustomerContactCache customerContactCache;
 
     @RabbitListener(queues = RabbitMQConfig.ORDER_STATUS_CHANGED_QUEUE)
     public void handleOrderStatusChangedEvent(OrderStatusChangedEvent event) {
@@ -24,17 +25,12 @@ public class OrderStatusChangedEventListener {
             String customerEmail = "customer@example.com";
             Long userId = null;
             if (event.getCustomerId() != null) {
-                try {
-                    com.mwaf.notificationservice.dto.CustomerDTO customer = customerServiceClient
-                            .getCustomerById(event.getCustomerId());
-                    if (customer != null) {
-                        if (customer.getEmail() != null) {
-                            customerEmail = customer.getEmail();
-                        }
-                        userId = customer.getUserId();
+                CustomerContactCache.CustomerContact contact = customerContactCache.get(event.getCustomerId());
+                if (contact != null) {
+                    if (contact.email() != null) {
+                        customerEmail = contact.email();
                     }
-                } catch (Exception e) {
-                    log.error("Failed to fetch customer email for customerId: {}", event.getCustomerId(), e);
+                    userId = contact.userId();
                 }
             }
 
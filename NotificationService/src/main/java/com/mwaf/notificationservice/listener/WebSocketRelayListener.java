@@ -0,0 +1,20 @@
+package com.mwaf.notificationservice.listener;
+
+import com.mwaf.notificationservice.service.NotificationBroadcaster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class WebSocketRelayListener {
+
+    private final NotificationBroadcaster broadcaster;
+
+    // A single consumer keeps relayed notifications for a user in the order they were sent
+    @RabbitListener(queues = "#{webSocketRelayQueue.name}", concurrency = "1")
+    public void handleRelayedNotification(Message message) {
+        broadcaster.deliverRelayed(message);
+    }
+}
@@ -0,0 +1,98 @@
+package com.mwaf.notificationservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Queue operations on PENDING email notifications. A claim pushes
+ * {@code next_attempt_at} forward by a lease, so a row whose sender died is
+ * picked up again once the lease runs out; SKIP LOCKED lets several
+ * instances claim concurrently without handing out the same row twice.
+ */
+@Repository
+public class EmailDispatchRepository {
+
+    public record EmailJob(Long id, String recipientEmail, Long recipientUserId, String subject,
+                           String content, int attempts, LocalDateTime createdAt) {
+    }
+
+    // Result of one send attempt, applied in batches by NotificationWriter
+    public sealed interface Outcome permits Sent, Retry, Failed {
+        Long id();
+    }
+
+    public record Sent(Long id, LocalDateTime sentAt) implements Outcome {
+    }
+
+    public record Retry(Long id, LocalDateTime nextAttemptAt, String error) implements Outcome {
+    }
+
+    public record Failed(Long id, String error) implements Outcome {
+    }
+
+    private static final String CLAIM_DUE_SQL =
+            "UPDATE notification n SET next_attempt_at = LOCALTIMESTAMP + make_interval(secs => ?) " +
+            "FROM (SELECT id FROM notification " +
+            "      WHERE status = 'PENDING' AND type = 'EMAIL' AND next_attempt_at <= LOCALTIMESTAMP " +
+            "      ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) due " +
+            "WHERE n.id = due.id " +
+            "RETURNING n.id, n.recipient_email, n.recipient_user_id, n.subject, n.content, n.attempts, n.created_at";
+
+    private static final String MARK_SENT_SQL =
+            "UPDATE notification SET status = 'SENT', sent_at = ?, attempts = attempts + 1, " +
+            "next_attempt_at = NULL, error_message = NULL WHERE id = ?";
+
+    private static final String MARK_RETRY_SQL =
+            "UPDATE notification SET attempts = attempts + 1, next_attempt_at = ?, error_message = ? WHERE id = ?";
+
+    private static final String MARK_FAILED_SQL =
+            "UPDATE notification SET status = 'FAILED', attempts = attempts + 1, " +
+            "next_attempt_at = NULL, error_message = ? WHERE id = ?";
+
+    private static final RowMapper<EmailJob> ROW_MAPPER = (rs, rowNum) -> new EmailJob(
+            rs.getLong(1),
+            rs.getString(2),
+            rs.getObject(3, Long.class),
+            rs.getString(4),
+            rs.getString(5),
+            rs.getInt(6),
+            rs.getTimestamp(7).toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EmailDispatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<EmailJob> claimDue(int limit, long leaseSeconds) {
+        return jdbcTemplate.query(CLAIM_DUE_SQL, ROW_MAPPER, leaseSeconds, limit);
+    }
+
+    public void applyOutcomes(List<? extends Outcome> outcomes) {
+        List<Object[]> sent = new ArrayList<>();
+        List<Object[]> retries = new ArrayList<>();
+        List<Object[]> failed = new ArrayList<>();
+        for (Outcome outcome : outcomes) {
+            switch (outcome) {
+                case Sent s -> sent.add(new Object[]{Timestamp.valueOf(s.sentAt()), s.id()});
+                case Retry r -> retries.add(new Object[]{Timestamp.valueOf(r.nextAttemptAt()), r.error(), r.id()});
+                case Failed f -> failed.add(new Object[]{f.error(), f.id()});
+            }
+        }
+        if (!sent.isEmpty()) {
+            jdbcTemplate.batchUpdate(MARK_SENT_SQL, sent);
+        }
+        if (!retries.isEmpty()) {
+            jdbcTemplate.batchUpdate(MARK_RETRY_SQL, retries);
+        }
+        if (!failed.isEmpty()) {
+            jdbcTemplate.batchUpdate(MARK_FAILED_SQL, failed);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.mwaf.notificationservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template parsed once into a flat list of segments, so rendering is a
+ * single pass of appends with no format-string parsing.
+ *
+ * Syntax is a small subset of Mustache: {@code {{name}}} inserts an
+ * HTML-escaped value, {@code {{{name}}}} inserts it as is,
+ * {@code {{#name}}...{{/name}}} repeats the block for each element of a
+ * list of maps (or once if the value is {@code true}), and
+ * {@code {{! ...}}} is a comment. Names not found in an element's map are
+ * looked up in the enclosing scope.
+ */
+public final class CompiledTemplate {
+
+    // Buffers that grew past this are not kept for reuse
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    private sealed interface Segment permits Literal, Variable, Section {
+    }
+
+    private record Literal(String text) implements Segment {
+    }
+
+    private record Variable(String name, boolean escape) implements Segment {
+    }
+
+    private record Section(String name, Segment[] body) implements Segment {
+    }
+
+    private final String name;
+    private final int version;
+    private final Segment[] segments;
+    private final int sizeHint;
+
+    private CompiledTemplate(String name, int version, Segment[] segments, int sizeHint) {
+        this.name = name;
+        this.version = version;
+        this.segments = segments;
+        this.sizeHint = sizeHint;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int version() {
+        return version;
+    }
+
+    public String render(Map<String, ?> model) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        out.ensureCapacity(sizeHint);
+        try {
+            renderSegments(segments, out, model, null);
+            return out.toString();
+        } finally {
+            if (out.capacity() > MAX_RETAINED_BUFFER) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    private static void renderSegments(Segment[] segments, StringBuilder out, Map<String, ?> scope, Map<String, ?> parent) {
+        for (Segment segment : segments) {
+            if (segment instanceof Literal literal) {
+                out.append(literal.text());
+            } else if (segment instanceof Variable variable) {
+                Object value = lookup(variable.name(), scope, parent);
+                if (variable.escape()) {
+                    appendEscaped(out, value);
+                } else if (value != null) {
+                    out.append(value);
+                }
+            } else if (segment instanceof Section section) {
+                Object value = lookup(section.name(), scope, parent);
+                if (value instanceof Iterable<?> elements) {
+                    for (Object element : elements) {
+                        if (element instanceof Map<?, ?> map) {
+                            @SuppressWarnings("unchecked")
+                            Map<String, ?> elementScope = (Map<String, ?>) map;
+                            renderSegments(section.body(), out, elementScope, scope);
+                        }
+                    }
+                } else if (Boolean.TRUE.equals(value)) {
+                    renderSegments(section.body(), out, scope, parent);
+                }
+            }
+        }
+    }
+
+    private static Object lookup(String name, Map<String, ?> scope, Map<String, ?> parent) {
+        Object value = scope.get(name);
+        if (value == null && parent != null) {
+            value = parent.get(name);
+        }
+        return value;
+    }
+
+    private static void appendEscaped(StringBuilder out, Object value) {
+        if (value == null) {
+            return;
+        }
+        // Numbers cannot contain markup, and appending them directly avoids a toString()
+        if (value instanceof Long l) {
+            out.append(l.longValue());
+            return;
+        }
+        if (value instanceof Integer i) {
+            out.append(i.intValue());
+            return;
+        }
+        String text = value.toString();
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            String entity = switch (text.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (entity != null) {
+                out.append(text, start, i).append(entity);
+                start = i + 1;
+            }
+        }
+        out.append(text, start, text.length());
+    }
+
+    public static CompiledTemplate compile(String name, int version, String source) {
+        List<List<Segment>> stack = new ArrayList<>();
+        List<String> openSections = new ArrayList<>();
+        stack.add(new ArrayList<>());
+
+        int pos = 0;
+        while (pos < source.length()) {
+            int open = source.indexOf("{{", pos);
+            if (open < 0) {
+                addLiteral(stack, source.substring(pos));
+                break;
+            }
+            if (open > pos) {
+                addLiteral(stack, source.substring(pos, open));
+            }
+
+            boolean raw = source.startsWith("{{{", open);
+            String closeToken = raw ? "}}}" : "}}";
+            int tagStart = open + (raw ? 3 : 2);
+            int close = source.indexOf(closeToken, tagStart);
+            if (close < 0) {
+                throw new IllegalStateException("Unclosed tag at offset " + open + " in template " + name);
+            }
+            String tag = source.substring(tagStart, close).trim();
+            pos = close + closeToken.length();
+
+            if (raw) {
+                current(stack).add(new Variable(tag, false));
+            } else if (tag.startsWith("!")) {
+                // comment
+            } else if (tag.startsWith("#")) {
+                openSections.add(tag.substring(1).trim());
+                stack.add(new ArrayList<>());
+            } else if (tag.startsWith("/")) {
+                String sectionName = tag.substring(1).trim();
+                if (openSections.isEmpty() || !openSections.get(openSections.size() - 1).equals(sectionName)) {
+                    throw new IllegalStateException("Unexpected {{/" + sectionName + "}} in template " + name);
+                }
+                openSections.remove(openSections.size() - 1);
+                List<Segment> body = stack.remove(stack.size() - 1);
+                current(stack).add(new Section(sectionName, body.toArray(Segment[]::new)));
+            } else {
+                current(stack).add(new Variable(tag, true));
+            }
+        }
+
+        if (!openSections.isEmpty()) {
+            throw new IllegalStateException("Unclosed section {{#" + openSections.get(openSections.size() - 1)
+                    + "}} in template " + name);
+        }
+        Segment[] segments = stack.get(0).toArray(Segment[]::new);
+        // Leave some room for the values so the first render rarely has to grow the buffer
+        return new CompiledTemplate(name, version, segments, source.length() + 512);
+    }
+
+    private static List<Segment> current(List<List<Segment>> stack) {
+        return stack.get(stack.size() - 1);
+    }
+
+    private static void addLiteral(List<List<Segment>> stack, String text) {
+        List<Segment> segments = current(stack);
+        // Merge with a preceding literal left by a comment tag
+        if (!segments.isEmpty() && segments.get(segments.size() - 1) instanceof Literal previous) {
+            segments.set(segments.size() - 1, new Literal(previous.text() + text));
+        } else {
+            segments.add(new Literal(text));
+        }
+    }
+}
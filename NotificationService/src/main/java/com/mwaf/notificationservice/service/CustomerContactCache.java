@@ -0,0 +1,76 @@
+package com.mwaf.notificationservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mwaf.notificationservice.client.CustomerServiceClient;
+import com.mwaf.notificationservice.dto.CustomerDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Email address and user id of customers, keyed by customer id, so order
+ * events can be turned into notifications without calling CustomerService.
+ * Entries are written straight from CustomerService's change events and
+ * only fall back to a Feign lookup when a customer has not been seen yet.
+ * The TTL bounds how long a missed event can leave a stale address behind.
+ *
+ * Hit, miss and eviction counts are exported as the {@code cache.*} meters
+ * tagged {@code cache=customerContact}.
+ */
+@Component
+@Slf4j
+public class CustomerContactCache {
+
+    public record CustomerContact(Long userId, String email) {
+    }
+
+    private final Cache<Long, CustomerContact> cache;
+    private final CustomerServiceClient customerServiceClient;
+
+    public CustomerContactCache(CustomerServiceClient customerServiceClient,
+                                MeterRegistry meterRegistry,
+                                @Value("${notification.customer-cache.maximum-size:50000}") long maximumSize,
+                                @Value("${notification.customer-cache.ttl-minutes:60}") long ttlMinutes) {
+        this.customerServiceClient = customerServiceClient;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "customerContact");
+    }
+
+    /**
+     * Returns the contact for a customer, loading it from CustomerService on
+     * a miss. Concurrent misses for the same customer share one lookup.
+     *
+     * @return null if the customer is unknown or CustomerService is unreachable
+     */
+    public CustomerContact get(Long customerId) {
+        try {
+            return cache.get(customerId, this::load);
+        } catch (Exception e) {
+            log.error("Failed to fetch customer contact for customerId: {}", customerId, e);
+            return null;
+        }
+    }
+
+    public void put(Long customerId, Long userId, String email) {
+        cache.put(customerId, new CustomerContact(userId, email));
+    }
+
+    public void invalidate(Long customerId) {
+        cache.invalidate(customerId);
+    }
+
+    private CustomerContact load(Long customerId) {
+        CustomerDTO customer = customerServiceClient.getCustomerById(customerId);
+        // Caffeine does not cache null, so an unknown customer is looked up again next time
+        return customer == null ? null : new CustomerContact(customer.getUserId(), customer.getEmail());
+    }
+}
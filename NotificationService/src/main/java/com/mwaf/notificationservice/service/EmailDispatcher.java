@@ -0,0 +1,272 @@
+package com.mwaf.notificationservice.service;
+
+import com.mwaf.notificationservice.model.Notification;
+import com.mwaf.notificationservice.model.NotificationStatus;
+import com.mwaf.notificationservice.model.NotificationType;
+import com.mwaf.notificationservice.repository.EmailDispatchRepository;
+import com.mwaf.notificationservice.repository.EmailDispatchRepository.EmailJob;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends queued EMAIL notifications off the RabbitMQ listener threads.
+ * Listeners only insert a PENDING row; this class claims due rows, hands them
+ * to a fixed pool of workers in chunks, and each worker sends its chunk over
+ * one pooled SMTP connection.
+ *
+ * At most {@code max-in-flight} emails are claimed at a time, so a slow SMTP
+ * server leaves the backlog in the table rather than in memory. A failed send
+ * is retried with exponential backoff up to {@code max-attempts}, then the
+ * notification is marked FAILED. The user's WebSocket notification goes out
+ * once the email is sent or has finally failed.
+ */
+@Component
+@Slf4j
+public class EmailDispatcher {
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final EmailDispatchRepository dispatchRepository;
+    private final NotificationWriter notificationWriter;
+    private final EmailService emailService;
+    private final SmtpTransportPool transportPool;
+    private final NotificationBroadcaster broadcaster;
+
+    private final int chunkSize;
+    private final int maxAttempts;
+    private final long leaseSeconds;
+    private final Duration initialBackoff;
+
+    private final ExecutorService claimer = Executors.newSingleThreadExecutor(daemon("email-claimer"));
+    private final ThreadPoolExecutor workers;
+    private final Semaphore inFlight;
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+
+    private final Counter sentCounter;
+    private final Counter retryCounter;
+    private final Counter failedCounter;
+
+    public EmailDispatcher(EmailDispatchRepository dispatchRepository,
+                           NotificationWriter notificationWriter,
+                           EmailService emailService,
+                           SmtpTransportPool transportPool,
+                           NotificationBroadcaster broadcaster,
+                           MeterRegistry meterRegistry,
+                           @Value("${notification.email.workers:4}") int workerCount,
+                           @Value("${notification.email.max-in-flight:200}") int maxInFlight,
+                           @Value("${notification.email.chunk-size:20}") int chunkSize,
+                           @Value("${notification.email.max-attempts:5}") int maxAttempts,
+                           @Value("${notification.email.lease-seconds:300}") long leaseSeconds,
+                           @Value("${notification.email.initial-backoff-seconds:30}") long initialBackoffSeconds) {
+        this.dispatchRepository = dispatchRepository;
+        this.notificationWriter = notificationWriter;
+        this.emailService = emailService;
+        this.transportPool = transportPool;
+        this.broadcaster = broadcaster;
+        this.chunkSize = chunkSize;
+        this.maxAttempts = maxAttempts;
+        this.leaseSeconds = leaseSeconds;
+        this.initialBackoff = Duration.ofSeconds(initialBackoffSeconds);
+        this.inFlight = new Semaphore(maxInFlight);
+        // The in-flight permits already bound the queue; it never holds more than maxInFlight / chunkSize chunks
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), daemon("email-sender"));
+
+        Gauge.builder("notification.email.in_flight", () -> maxInFlight - inFlight.availablePermits())
+                .description("Emails claimed and not yet sent")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("notification.email.sent").register(meterRegistry);
+        this.retryCounter = Counter.builder("notification.email.retries").register(meterRegistry);
+        this.failedCounter = Counter.builder("notification.email.failed").register(meterRegistry);
+    }
+
+    /**
+     * Asks for due emails to be claimed soon. Cheap and safe to call often:
+     * requests made while a drain is already queued are coalesced.
+     */
+    public void wakeUp() {
+        if (drainRequested.compareAndSet(false, true)) {
+            claimer.execute(this::drain);
+        }
+    }
+
+    // Picks up retries whose backoff has expired and rows whose sender died
+    @Scheduled(fixedDelayString = "${notification.email.poll-interval-ms:1000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    private void drain() {
+        drainRequested.set(false);
+        try {
+            while (true) {
+                int capacity = inFlight.availablePermits();
+                if (capacity == 0) {
+                    // Workers call wakeUp() as they finish, so nothing is left behind
+                    return;
+                }
+                List<EmailJob> jobs = dispatchRepository.claimDue(capacity, leaseSeconds);
+                if (jobs.isEmpty()) {
+                    return;
+                }
+                inFlight.acquireUninterruptibly(jobs.size());
+                for (int from = 0; from < jobs.size(); from += chunkSize) {
+                    List<EmailJob> chunk = jobs.subList(from, Math.min(from + chunkSize, jobs.size()));
+                    workers.execute(() -> sendChunk(chunk));
+                }
+                if (jobs.size() < capacity) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to claim pending emails: {}", e.getMessage());
+        }
+    }
+
+    private void sendChunk(List<EmailJob> chunk) {
+        int done = 0;
+        SmtpTransportPool.Lease lease = null;
+        try {
+            for (EmailJob job : chunk) {
+                if (lease == null) {
+                    try {
+                        lease = transportPool.borrow();
+                    } catch (MessagingException e) {
+                        failed(job, e);
+                    }
+                }
+                if (lease != null && !send(lease, job)) {
+                    // Dropped connection: close it and carry on with a fresh one
+                    transportPool.release(lease, true);
+                    lease = null;
+                }
+                done++;
+                inFlight.release();
+            }
+        } catch (InterruptedException e) {
+            // Unsent jobs are claimed again once their lease expires
+            Thread.currentThread().interrupt();
+        } finally {
+            if (lease != null) {
+                transportPool.release(lease, false);
+            }
+            inFlight.release(chunk.size() - done);
+            wakeUp();
+        }
+    }
+
+    /**
+     * @return false if the connection can no longer be used
+     */
+    private boolean send(SmtpTransportPool.Lease lease, EmailJob job) {
+        try {
+            MimeMessage message = emailService.createMessage(job.recipientEmail(), job.subject(), job.content());
+            lease.transport().sendMessage(message, message.getAllRecipients());
+            lease.sent();
+        } catch (SendFailedException e) {
+            // Rejected recipient; the session itself is still fine
+            failed(job, e);
+            return true;
+        } catch (Exception e) {
+            failed(job, e);
+            return lease.transport().isConnected();
+        }
+
+        LocalDateTime sentAt = LocalDateTime.now();
+        sentCounter.increment();
+        log.info("Email {} sent successfully to: {}", job.id(), job.recipientEmail());
+        notificationWriter.record(new EmailDispatchRepository.Sent(job.id(), sentAt)).whenComplete((ignored, e) -> {
+            if (e != null) {
+                // The lease will expire and the email be sent again; better twice than never
+                log.error("Email {} was sent but could not be marked SENT: {}", job.id(), e.getMessage());
+            } else {
+                broadcaster.toUser(job.recipientUserId(), toNotification(job, NotificationStatus.SENT, sentAt, null));
+            }
+        });
+        return true;
+    }
+
+    private void failed(EmailJob job, Exception cause) {
+        String error = String.valueOf(cause.getMessage());
+        if (error.length() > 1000) {
+            error = error.substring(0, 1000);
+        }
+        int attempts = job.attempts() + 1;
+        if (attempts < maxAttempts) {
+            Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+            LocalDateTime nextAttemptAt = LocalDateTime.now().plus(backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff);
+            retryCounter.increment();
+            log.warn("Email {} to {} failed (attempt {}), will retry: {}", job.id(), job.recipientEmail(), attempts, error);
+            notificationWriter.record(new EmailDispatchRepository.Retry(job.id(), nextAttemptAt, error))
+                    .exceptionally(e -> failureNotRecorded(job, e));
+        } else {
+            String finalError = error;
+            failedCounter.increment();
+            log.error("Email {} to {} failed after {} attempts: {}", job.id(), job.recipientEmail(), attempts, error);
+            notificationWriter.record(new EmailDispatchRepository.Failed(job.id(), error))
+                    .thenRun(() -> broadcaster.toUser(job.recipientUserId(),
+                            toNotification(job, NotificationStatus.FAILED, null, finalError)))
+                    .exceptionally(e -> failureNotRecorded(job, e));
+        }
+    }
+
+    private Void failureNotRecorded(EmailJob job, Throwable cause) {
+        log.error("Could not record failure of email {}: {}", job.id(), cause.getMessage());
+        return null;
+    }
+
+    private Notification toNotification(EmailJob job, NotificationStatus status, LocalDateTime sentAt, String error) {
+        Notification notification = new Notification();
+        notification.setId(job.id());
+        notification.setType(NotificationType.EMAIL);
+        notification.setStatus(status);
+        notification.setRecipientEmail(job.recipientEmail());
+        notification.setRecipientUserId(job.recipientUserId());
+        notification.setSubject(job.subject());
+        notification.setContent(job.content());
+        notification.setCreatedAt(job.createdAt());
+        notification.setSentAt(sentAt);
+        notification.setErrorMessage(error);
+        notification.setAttempts(job.attempts() + 1);
+        return notification;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        claimer.shutdown();
+        workers.shutdown();
+        // Anything not sent by then is re-claimed when its lease expires
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
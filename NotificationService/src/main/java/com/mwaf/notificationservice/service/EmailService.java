@@ -18,19 +18,24 @@ public class EmailService {
 
     public void sendEmail(String to, String subject, String htmlContent) {
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true); // true = HTML content
-            helper.setFrom("noreply@smartstock.com");
-            
-            mailSender.send(message);
+            mailSender.send(createMessage(to, subject, htmlContent));
             log.info("Email sent successfully to: {}", to);
         } catch (MessagingException e) {
             log.error("Failed to send email to: {}", to, e);
             throw new RuntimeException("Failed to send email", e);
         }
     }
+
+    // Builds a ready-to-send message, e.g. for sending over a pooled transport
+    public MimeMessage createMessage(String to, String subject, String htmlContent) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(htmlContent, true); // true = HTML content
+        helper.setFrom("noreply@smartstock.com");
+        message.saveChanges();
+        return message;
+    }
 }
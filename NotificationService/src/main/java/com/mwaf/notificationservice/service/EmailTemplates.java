@@ -0,0 +1,78 @@
+package com.mwaf.notificationservice.service;
+
+import com.mwaf.notificationservice.model.NotificationType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Notification templates loaded from {@code classpath:templates/<type>/<name>.v<version>.html},
+ * where {@code <type>} is a lower-cased {@link NotificationType}. Every
+ * template is compiled once at startup, so a broken template stops the
+ * service from starting rather than failing on the first send. Adding a
+ * file with a higher version number replaces a template without touching
+ * the previous one.
+ */
+@Component
+@Slf4j
+public class EmailTemplates {
+
+    private static final Pattern TEMPLATE_PATH = Pattern.compile("templates/([a-z_]+)/([a-z0-9-]+)\\.v(\\d+)\\.html$");
+
+    private record Key(NotificationType type, String name) {
+    }
+
+    private final Map<Key, NavigableMap<Integer, CompiledTemplate>> templates = new HashMap<>();
+
+    public EmailTemplates() throws IOException {
+        ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        for (Resource resource : resolver.getResources("classpath*:templates/*/*.html")) {
+            Matcher matcher = TEMPLATE_PATH.matcher(resource.getURL().getPath());
+            if (!matcher.find()) {
+                log.warn("Ignoring template with unexpected name: {}", resource.getDescription());
+                continue;
+            }
+            NotificationType type = NotificationType.valueOf(matcher.group(1).toUpperCase(Locale.ROOT));
+            String name = matcher.group(2);
+            int version = Integer.parseInt(matcher.group(3));
+            String source = resource.getContentAsString(StandardCharsets.UTF_8);
+
+            templates.computeIfAbsent(new Key(type, name), k -> new TreeMap<>())
+                    .put(version, CompiledTemplate.compile(type + "/" + name + ".v" + version, version, source));
+        }
+        templates.forEach((key, versions) -> log.info("Loaded {} template {} (v{})",
+                key.type(), key.name(), versions.lastKey()));
+    }
+
+    // Latest version of a template
+    public CompiledTemplate get(NotificationType type, String name) {
+        NavigableMap<Integer, CompiledTemplate> versions = templates.get(new Key(type, name));
+        if (versions == null) {
+            throw new IllegalStateException("No " + type + " template named " + name);
+        }
+        return versions.lastEntry().getValue();
+    }
+
+    public CompiledTemplate get(NotificationType type, String name, int version) {
+        CompiledTemplate template = get(type, name);
+        if (template.version() != version) {
+            template = templates.get(new Key(type, name)).get(version);
+            if (template == null) {
+                throw new IllegalStateException("No version " + version + " of " + type + " template " + name);
+            }
+        }
+        return template;
+    }
+}
@@ -0,0 +1,106 @@
+package com.mwaf.notificationservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mwaf.notificationservice.config.RabbitMQConfig;
+import com.mwaf.notificationservice.model.Notification;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Pushes notifications to connected WebSocket clients. Each notification is
+ * serialized once; the bytes go to this instance's subscribers and, through
+ * a RabbitMQ fanout exchange, to the other NotificationService instances,
+ * since a user's WebSocket can be connected to any of them.
+ */
+@Component
+@Slf4j
+public class NotificationBroadcaster {
+
+    private static final String ORIGIN_HEADER = "ws-origin";
+    private static final String USER_ID_HEADER = "ws-user-id";
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final WebSocketFanOut fanOut;
+    private final AmqpTemplate amqpTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean relayEnabled;
+
+    public NotificationBroadcaster(WebSocketFanOut fanOut,
+                                   AmqpTemplate amqpTemplate,
+                                   ObjectMapper objectMapper,
+                                   @Value("${notification.ws.relay.enabled:true}") boolean relayEnabled) {
+        this.fanOut = fanOut;
+        this.amqpTemplate = amqpTemplate;
+        this.objectMapper = objectMapper;
+        this.relayEnabled = relayEnabled;
+    }
+
+    public void toUser(Long userId, Notification notification) {
+        if (userId != null) {
+            log.info("Broadcasting WebSocket notification to /topic/user.{}", userId);
+            byte[] payload = serialize(notification);
+            if (payload != null) {
+                fanOut.toUser(userId, payload);
+                relay(payload, userId);
+            }
+        }
+    }
+
+    public void toAdmins(Notification notification) {
+        log.info("Broadcasting WebSocket notification to {}", WebSocketFanOut.ADMIN_TOPIC);
+        byte[] payload = serialize(notification);
+        if (payload != null) {
+            fanOut.toAdmins(payload);
+            relay(payload, null);
+        }
+    }
+
+    // A notification broadcast by another instance, see WebSocketRelayListener
+    public void deliverRelayed(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        if (instanceId.equals(properties.getHeader(ORIGIN_HEADER))) {
+            return;
+        }
+        Object userId = properties.getHeader(USER_ID_HEADER);
+        if (userId == null) {
+            fanOut.toAdmins(message.getBody());
+        } else {
+            fanOut.toUser(((Number) userId).longValue(), message.getBody());
+        }
+    }
+
+    private void relay(byte[] payload, Long userId) {
+        if (!relayEnabled) {
+            return;
+        }
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setHeader(ORIGIN_HEADER, instanceId);
+        if (userId != null) {
+            properties.setHeader(USER_ID_HEADER, userId);
+        }
+        try {
+            amqpTemplate.send(RabbitMQConfig.WS_RELAY_EXCHANGE, "", new Message(payload, properties));
+        } catch (Exception e) {
+            // Clients on other instances still see the notification when they next load the list
+            log.warn("Failed to relay WebSocket notification to other instances: {}", e.getMessage());
+        }
+    }
+
+    private byte[] serialize(Notification notification) {
+        try {
+            return objectMapper.writeValueAsBytes(notification);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize notification {}: {}", notification.getId(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -12,10 +12,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.mwaf.notificationservice.event.OrderStatusChangedEvent;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -23,65 +25,28 @@ import java.util.List;
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
-    private final EmailService emailService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationWriter notificationWriter;
+    private final EmailDispatcher emailDispatcher;
+    private final NotificationBroadcaster broadcaster;
+    private final EmailTemplates emailTemplates;
 
+    // Emails are only queued here; EmailDispatcher sends them and notifies the user over WebSocket
     public void sendWelcomeEmail(UserRegisteredEvent event) {
-        log.info("Sending welcome email to: {}", event.getEmail());
+        log.info("Queueing welcome email to: {}", event.getEmail());
 
         String subject = "Welcome to SmartStock!";
         String content = buildWelcomeEmailContent(event);
 
-        Notification notification = createNotification(
-                NotificationType.EMAIL,
-                event.getEmail(),
-                event.getUserId(),
-                subject,
-                content);
-
-        try {
-            emailService.sendEmail(event.getEmail(), subject, content);
-            notification.setStatus(NotificationStatus.SENT);
-            notification.setSentAt(LocalDateTime.now());
-            log.info("Welcome email sent successfully to: {}", event.getEmail());
-        } catch (Exception e) {
-            notification.setStatus(NotificationStatus.FAILED);
-            notification.setErrorMessage(e.getMessage());
-            log.error("Failed to send welcome email to: {}", event.getEmail(), e);
-        } finally {
-            Notification savedNotification = notificationRepository.save(notification);
-            broadcastToUser(event.getUserId(), savedNotification);
-        }
+        queueEmail(event.getEmail(), event.getUserId(), subject, content);
     }
 
     public void sendOrderConfirmationEmail(OrderPlacedEvent event, String customerEmail, Long userId) {
-        log.info("Sending order confirmation email for order: {} to: {}", event.getOrderId(), customerEmail);
+        log.info("Queueing order confirmation email for order: {} to: {}", event.getOrderId(), customerEmail);
 
         String subject = "Order Confirmation - Order #" + event.getOrderId();
         String content = buildOrderConfirmationEmailContent(event);
 
-        Notification notification = createNotification(
-                NotificationType.EMAIL,
-                customerEmail,
-                userId,
-                subject,
-                content);
-
-        try {
-            emailService.sendEmail(customerEmail, subject, content);
-            notification.setStatus(NotificationStatus.SENT);
-            notification.setSentAt(LocalDateTime.now());
-            log.info("Order confirmation email sent successfully to: {}", customerEmail);
-        } catch (Exception e) {
-            notification.setStatus(NotificationStatus.FAILED);
-            notification.setErrorMessage(e.getMessage());
-            log.error("Failed to send order confirmation email to: {}", customerEmail, e);
-        } finally {
-            Notification savedNotification = notificationRepository.save(notification);
-            // Customer gets user WebSocket broadcast, we don't broadcast this specific
-            // email to admins anymore
-            broadcastToUser(userId, savedNotification);
-        }
+        queueEmail(customerEmail, userId, subject, content);
     }
 
     public void sendAdminOrderNotification(OrderPlacedEvent event, String customerEmail, Long customerId) {
@@ -91,76 +56,42 @@ public class NotificationService {
         String content = "Customer " + customerEmail + " (ID: " + customerId + ") has placed a new order #"
                 + event.getOrderId() + ".";
 
-        Notification notification = createNotification(
-                NotificationType.IN_APP,
-                "admin@smartstock.com",
-                0L,
-                subject,
-                content);
-
-        try {
-            notification.setStatus(NotificationStatus.SENT);
-            notification.setSentAt(LocalDateTime.now());
-        } finally {
-            Notification savedNotification = notificationRepository.save(notification);
-            broadcastToAdmins(savedNotification);
-        }
+        // In-app notifications are delivered by the broadcast itself, so the row starts out SENT
+        Notification notification = newNotification(NotificationType.IN_APP, NotificationStatus.SENT,
+                "admin@smartstock.com", 0L, subject, content);
+        notification.setSentAt(LocalDateTime.now());
+        notificationWriter.insert(notification, broadcaster::toAdmins);
     }
 
     public void sendOrderStatusUpdate(OrderStatusChangedEvent event, String customerEmail, Long userId) {
-        log.info("Sending order status update for order: {} (Status: {}) to: {}", event.getOrderId(),
+        log.info("Queueing order status update for order: {} (Status: {}) to: {}", event.getOrderId(),
                 event.getNewStatus(), customerEmail);
 
         String subject = "Order Status Update - Order #" + event.getOrderId();
-        String content = "Your order status has been updated to: " + event.getNewStatus();
+        Map<String, Object> model = new HashMap<>();
+        model.put("status", event.getNewStatus());
+        String content = emailTemplates.get(NotificationType.EMAIL, "order-status").render(model);
 
-        Notification notification = createNotification(
-                NotificationType.EMAIL,
-                customerEmail,
-                userId,
-                subject,
-                content);
-
-        try {
-            // Send email (optional if you want just websockets, but keeping for
-            // completeness)
-            emailService.sendEmail(customerEmail, subject, content);
-            notification.setStatus(NotificationStatus.SENT);
-            notification.setSentAt(LocalDateTime.now());
-            log.info("Order status update email sent successfully to: {}", customerEmail);
-        } catch (Exception e) {
-            notification.setStatus(NotificationStatus.FAILED);
-            notification.setErrorMessage(e.getMessage());
-            log.error("Failed to send order status email to: {}", customerEmail, e);
-        } finally {
-            Notification savedNotification = notificationRepository.save(notification);
-            broadcastToUser(userId, savedNotification);
-        }
-    }
-
-    private void broadcastToUser(Long userId, Notification notification) {
-        if (userId != null) {
-            log.info("Broadcasting WebSocket notification to /topic/user.{}", userId);
-            messagingTemplate.convertAndSend("/topic/user." + userId, notification);
-        }
+        queueEmail(customerEmail, userId, subject, content);
     }
 
-    private void broadcastToAdmins(Notification notification) {
-        log.info("Broadcasting WebSocket notification to /topic/admin.notifications");
-        messagingTemplate.convertAndSend("/topic/admin.notifications", notification);
+    private void queueEmail(String recipientEmail, Long userId, String subject, String content) {
+        Notification notification = newNotification(NotificationType.EMAIL, NotificationStatus.PENDING,
+                recipientEmail, userId, subject, content);
+        notification.setNextAttemptAt(LocalDateTime.now());
+        notificationWriter.insert(notification, saved -> emailDispatcher.wakeUp());
     }
 
-    @Transactional
-    public Notification createNotification(NotificationType type, String recipientEmail,
+    private Notification newNotification(NotificationType type, NotificationStatus status, String recipientEmail,
             Long userId, String subject, String content) {
         Notification notification = new Notification();
         notification.setType(type);
-        notification.setStatus(NotificationStatus.PENDING);
+        notification.setStatus(status);
         notification.setRecipientEmail(recipientEmail);
         notification.setRecipientUserId(userId);
         notification.setSubject(subject);
         notification.setContent(content);
-        return notificationRepository.save(notification);
+        return notification;
     }
 
     @Transactional
@@ -197,89 +128,25 @@ public class NotificationService {
     }
 
     private String buildWelcomeEmailContent(UserRegisteredEvent event) {
-        return String.format("""
-                <!DOCTYPE html>
-                <html>
-                <head>
-                    <style>
-                        body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
-                        .container { max-width: 600px; margin: 0 auto; padding: 20px; }
-                        .header { background-color: #4CAF50; color: white; padding: 20px; text-align: center; }
-                        .content { padding: 20px; background-color: #f9f9f9; }
-                        .footer { padding: 20px; text-align: center; color: #777; font-size: 12px; }
-                    </style>
-                </head>
-                <body>
-                    <div class="container">
-                        <div class="header">
-                            <h1>Welcome to SmartStock!</h1>
-                        </div>
-                        <div class="content">
-                            <h2>Hello %s,</h2>
-                            <p>Thank you for registering with SmartStock! We're excited to have you on board.</p>
-                            <p>Your account has been successfully created with the following details:</p>
-                            <ul>
-                                <li><strong>Username:</strong> %s</li>
-                                <li><strong>Email:</strong> %s</li>
-                            </ul>
-                            <p>You can now start exploring our products and services!</p>
-                            <p>If you have any questions, feel free to reach out to our support team.</p>
-                        </div>
-                        <div class="footer">
-                            <p>&copy; 2026 SmartStock. All rights reserved.</p>
-                        </div>
-                    </div>
-                </body>
-                </html>
-                """, event.getName(), event.getUsername(), event.getEmail());
+        Map<String, Object> model = new HashMap<>();
+        model.put("name", event.getName());
+        model.put("username", event.getUsername());
+        model.put("email", event.getEmail());
+        return emailTemplates.get(NotificationType.EMAIL, "welcome").render(model);
     }
 
     private String buildOrderConfirmationEmailContent(OrderPlacedEvent event) {
-        StringBuilder itemsHtml = new StringBuilder();
+        List<Map<String, Object>> items = new ArrayList<>(event.getItems().size());
         for (OrderPlacedEvent.OrderItemDto item : event.getItems()) {
-            itemsHtml.append(String.format(
-                    "<li>Product ID: %d - Quantity: %d</li>",
-                    item.getProductId(), item.getQuantity()));
+            Map<String, Object> line = new HashMap<>();
+            line.put("productId", item.getProductId());
+            line.put("quantity", item.getQuantity());
+            items.add(line);
         }
 
-        return String.format(
-                """
-                        <!DOCTYPE html>
-                        <html>
-                        <head>
-                            <style>
-                                body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
-                                .container { max-width: 600px; margin: 0 auto; padding: 20px; }
-                                .header { background-color: #2196F3; color: white; padding: 20px; text-align: center; }
-                                .content { padding: 20px; background-color: #f9f9f9; }
-                                .order-info { background-color: white; padding: 15px; margin: 15px 0; border-left: 4px solid #2196F3; }
-                                .footer { padding: 20px; text-align: center; color: #777; font-size: 12px; }
-                            </style>
-                        </head>
-                        <body>
-                            <div class="container">
-                                <div class="header">
-                                    <h1>Order Confirmation</h1>
-                                </div>
-                                <div class="content">
-                                    <h2>Thank you for your order!</h2>
-                                    <p>Your order has been successfully placed and is being processed.</p>
-                                    <div class="order-info">
-                                        <h3>Order Details</h3>
-                                        <p><strong>Order ID:</strong> #%d</p>
-                                        <p><strong>Items:</strong></p>
-                                        <ul>%s</ul>
-                                    </div>
-                                    <p>You will receive another email once your order has been shipped.</p>
-                                    <p>Thank you for shopping with SmartStock!</p>
-                                </div>
-                                <div class="footer">
-                                    <p>&copy; 2026 SmartStock. All rights reserved.</p>
-                                </div>
-                            </div>
-                        </body>
-                        </html>
-                        """,
-                event.getOrderId(), itemsHtml.toString());
+        Map<String, Object> model = new HashMap<>();
+        model.put("orderId", event.getOrderId());
+        model.put("items", items);
+        return emailTemplates.get(NotificationType.EMAIL, "order-confirmation").render(model);
     }
 }
@@ -0,0 +1,265 @@
+package com.mwaf.notificationservice.service;
+
+import com.mwaf.notificationservice.model.Notification;
+import com.mwaf.notificationservice.repository.EmailDispatchRepository;
+import com.mwaf.notificationservice.repository.EmailDispatchRepository.Outcome;
+import com.mwaf.notificationservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind stage for notification rows. New notifications and email
+ * send outcomes are queued here and written by a single flusher thread, one
+ * transaction per batch: inserts go through Hibernate's JDBC batching and
+ * status changes through {@code batchUpdate}. A batch is flushed once it
+ * reaches {@code batch-size} or {@code max-delay-ms} after its first entry.
+ *
+ * In {@code DURABLE} mode {@link #insert} blocks until the row is committed,
+ * so a RabbitMQ listener acks its message only after that and a crash leads
+ * to redelivery; concurrent listeners still share batches. {@code ASYNC}
+ * returns immediately and can lose whatever was buffered if the process dies.
+ */
+@Component
+@Slf4j
+public class NotificationWriter {
+
+    public enum Mode {
+        DURABLE, ASYNC
+    }
+
+    private sealed interface Op permits Insert, Update {
+        void fail(Throwable cause);
+    }
+
+    private record Insert(Notification notification, CompletableFuture<Notification> saved) implements Op {
+        public void fail(Throwable cause) {
+            saved.completeExceptionally(cause);
+        }
+    }
+
+    private record Update(Outcome outcome, CompletableFuture<Void> applied) implements Op {
+        public void fail(Throwable cause) {
+            applied.completeExceptionally(cause);
+        }
+    }
+
+    private final NotificationRepository notificationRepository;
+    private final EmailDispatchRepository dispatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Mode mode;
+    private final int batchSize;
+    private final long maxDelayNanos;
+
+    private final BlockingQueue<Op> queue;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizeSummary;
+
+    public NotificationWriter(NotificationRepository notificationRepository,
+                              EmailDispatchRepository dispatchRepository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${notification.persistence.mode:DURABLE}") Mode mode,
+                              @Value("${notification.persistence.batch-size:100}") int batchSize,
+                              @Value("${notification.persistence.max-delay-ms:5}") long maxDelayMs,
+                              @Value("${notification.persistence.queue-capacity:10000}") int queueCapacity) {
+        this.notificationRepository = notificationRepository;
+        this.dispatchRepository = dispatchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.mode = mode;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.flushTimer = Timer.builder("notification.persistence.flush")
+                .description("Time to write one batch of notification rows")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("notification.persistence.batch_size")
+                .description("Inserts and status updates written per batch")
+                .register(meterRegistry);
+        Gauge.builder("notification.persistence.queued", queue, BlockingQueue::size)
+                .description("Notification writes waiting to be flushed")
+                .register(meterRegistry);
+
+        this.flusher = new Thread(this::run, "notification-writer");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues a new notification, which should already carry its final
+     * status. {@code onSaved} runs on the writer thread once the row is
+     * committed and has its id.
+     */
+    public void insert(Notification notification, Consumer<Notification> onSaved) {
+        CompletableFuture<Notification> saved = new CompletableFuture<>();
+        enqueue(new Insert(notification, saved));
+        CompletableFuture<Notification> done = saved.thenApply(n -> {
+            try {
+                onSaved.accept(n);
+            } catch (Exception e) {
+                log.error("Post-save callback failed for notification {}: {}", n.getId(), e.getMessage());
+            }
+            return n;
+        });
+        if (mode == Mode.DURABLE) {
+            // CompletionException is unchecked, so a failed write rejects the listener's message
+            done.join();
+        } else {
+            done.exceptionally(e -> {
+                log.error("Failed to persist {} notification to {}: {}", notification.getType(),
+                        notification.getRecipientEmail(), e.getMessage());
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Queues the result of an email send attempt without waiting for it to
+     * be written; a lost outcome leaves the row claimed until its lease runs
+     * out, after which the email is retried.
+     */
+    public CompletableFuture<Void> record(Outcome outcome) {
+        CompletableFuture<Void> applied = new CompletableFuture<>();
+        enqueue(new Update(outcome, applied));
+        return applied;
+    }
+
+    private void enqueue(Op op) {
+        if (!running) {
+            throw new IllegalStateException("Notification writer is shut down");
+        }
+        try {
+            // A full queue means the database is behind; make the callers wait for it
+            queue.put(op);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing notification write", e);
+        }
+    }
+
+    private void run() {
+        List<Op> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Op first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Op next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Shutdown: carry on until the queue is empty
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Op> batch) {
+        batchSizeSummary.record(batch.size());
+        long start = System.nanoTime();
+        try {
+            write(batch);
+        } catch (Exception e) {
+            // Don't let one bad row fail everything it happened to be batched with
+            log.warn("Batch of {} notification writes failed, retrying one by one: {}", batch.size(), e.getMessage());
+            retrySeparately(batch);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Inserts are retried one per transaction; status updates touch existing rows and go together in one more
+    private void retrySeparately(List<Op> batch) {
+        List<Op> updates = new ArrayList<>();
+        for (Op op : batch) {
+            if (op instanceof Insert insert) {
+                // saveAll handed out an id before the rollback; with it set, save() would merge a row that isn't there
+                insert.notification().setId(null);
+                try {
+                    write(List.of(insert));
+                } catch (Exception single) {
+                    insert.fail(single);
+                }
+            } else {
+                updates.add(op);
+            }
+        }
+        if (!updates.isEmpty()) {
+            try {
+                write(updates);
+            } catch (Exception e) {
+                updates.forEach(op -> op.fail(e));
+            }
+        }
+    }
+
+    private void write(List<Op> batch) {
+        List<Insert> inserts = new ArrayList<>();
+        List<Update> updates = new ArrayList<>();
+        for (Op op : batch) {
+            if (op instanceof Insert insert) {
+                inserts.add(insert);
+            } else if (op instanceof Update update) {
+                updates.add(update);
+            }
+        }
+
+        List<Notification> saved = transactionTemplate.execute(status -> {
+            List<Notification> rows = inserts.isEmpty() ? List.of() : notificationRepository.saveAll(
+                    inserts.stream().map(Insert::notification).toList());
+            if (!updates.isEmpty()) {
+                dispatchRepository.applyOutcomes(updates.stream().map(Update::outcome).toList());
+            }
+            return rows;
+        });
+
+        for (int i = 0; i < inserts.size(); i++) {
+            inserts.get(i).saved().complete(saved.get(i));
+        }
+        for (Update update : updates) {
+            update.applied().complete(null);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
@@ -0,0 +1,139 @@
+package com.mwaf.notificationservice.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps authenticated SMTP connections open between messages, so a batch of
+ * emails pays for the TCP, STARTTLS and AUTH handshakes once instead of once
+ * per message as {@link JavaMailSender#send} does. A connection is retired
+ * after a number of messages or when it has sat idle long enough that the
+ * server has probably dropped it.
+ */
+@Component
+@Slf4j
+public class SmtpTransportPool {
+
+    public static final class Lease {
+        private final Transport transport;
+        private int messagesSent;
+        private long lastUsedNanos = System.nanoTime();
+
+        private Lease(Transport transport) {
+            this.transport = transport;
+        }
+
+        public Transport transport() {
+            return transport;
+        }
+
+        public void sent() {
+            messagesSent++;
+        }
+    }
+
+    private final JavaMailSenderImpl mailSender;
+    private final Semaphore connections;
+    private final BlockingDeque<Lease> idle = new LinkedBlockingDeque<>();
+    private final int maxMessagesPerConnection;
+    private final long maxIdleNanos;
+    private final long borrowTimeoutMs;
+
+    public SmtpTransportPool(JavaMailSender mailSender,
+                             @Value("${notification.email.smtp.max-connections:4}") int maxConnections,
+                             @Value("${notification.email.smtp.max-messages-per-connection:100}") int maxMessagesPerConnection,
+                             @Value("${notification.email.smtp.max-idle-ms:30000}") long maxIdleMs,
+                             @Value("${notification.email.smtp.borrow-timeout-ms:30000}") long borrowTimeoutMs) {
+        if (!(mailSender instanceof JavaMailSenderImpl impl)) {
+            throw new IllegalStateException("SMTP pooling needs a JavaMailSenderImpl, got " + mailSender.getClass());
+        }
+        this.mailSender = impl;
+        this.connections = new Semaphore(maxConnections, true);
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.maxIdleNanos = TimeUnit.MILLISECONDS.toNanos(maxIdleMs);
+        this.borrowTimeoutMs = borrowTimeoutMs;
+    }
+
+    /**
+     * Hands out a connected transport, reusing an idle one when possible.
+     * Blocks while every connection is in use.
+     */
+    public Lease borrow() throws MessagingException, InterruptedException {
+        if (!connections.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new MessagingException("Timed out waiting for an SMTP connection");
+        }
+        try {
+            Lease lease;
+            while ((lease = idle.pollFirst()) != null) {
+                if (System.nanoTime() - lease.lastUsedNanos < maxIdleNanos && lease.transport.isConnected()) {
+                    return lease;
+                }
+                close(lease);
+            }
+            return new Lease(connect());
+        } catch (MessagingException | RuntimeException e) {
+            connections.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a transport to the pool. Pass {@code broken} when a send failed
+     * at the connection level so it is closed rather than reused.
+     */
+    public void release(Lease lease, boolean broken) {
+        try {
+            if (broken || lease.messagesSent >= maxMessagesPerConnection || !lease.transport.isConnected()) {
+                close(lease);
+            } else {
+                lease.lastUsedNanos = System.nanoTime();
+                // Most recently used first, so surplus connections age out
+                idle.offerFirst(lease);
+            }
+        } finally {
+            connections.release();
+        }
+    }
+
+    private Transport connect() throws MessagingException {
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        String username = mailSender.getUsername();
+        String password = mailSender.getPassword();
+        if ("".equals(username)) {
+            username = null;
+            if ("".equals(password)) {
+                password = null;
+            }
+        }
+        transport.connect(mailSender.getHost(), mailSender.getPort(), username, password);
+        log.debug("Opened SMTP connection to {}:{}", mailSender.getHost(), mailSender.getPort());
+        return transport;
+    }
+
+    private void close(Lease lease) {
+        try {
+            lease.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Lease lease;
+        while ((lease = idle.pollFirst()) != null) {
+            close(lease);
+        }
+    }
+}
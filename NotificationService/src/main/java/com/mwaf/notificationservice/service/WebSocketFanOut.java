@@ -0,0 +1,322 @@
+package com.mwaf.notificationservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Delivers notifications to STOMP subscribers of {@code /topic/user.{id}} and
+ * {@code /topic/admin.notifications} in place of the simple broker, which
+ * still handles connects, heartbeats and any other destination.
+ *
+ * Subscriptions live in shards, each owned by one thread: user topics are
+ * placed by user id and admin subscriptions by session id. All changes and
+ * deliveries for a shard run on its thread, so its maps need no locking,
+ * and messages for one user are delivered in order while different users
+ * are served in parallel. The payload is serialized once by the caller and
+ * the same bytes are handed to every session.
+ *
+ * Each session has a bounded outbox and at most one message in the client
+ * outbound channel at a time. A session whose outbox fills up is sent an
+ * ERROR frame, which closes it; the client reconnects and reloads its
+ * notifications over REST. Sockets that accept frames but drain them slowly
+ * are closed by the transport's send buffer and time limits instead.
+ */
+@Component
+@Slf4j
+public class WebSocketFanOut {
+
+    public static final String ADMIN_TOPIC = "/topic/admin.notifications";
+
+    private static final Pattern USER_TOPIC = Pattern.compile("/topic/user\\.(\\d+)");
+
+    // Marks messages sent by this class so the outbound interceptor can tell them apart
+    private static final String FAN_OUT_HEADER = "notificationFanOut";
+
+    private record Subscription(String subscriptionId, String destination, SessionOutbox outbox) {
+    }
+
+    // Where a subscription is registered; userId is null for the admin topic
+    private record Placement(int shard, Long userId) {
+    }
+
+    private static final class Shard {
+        final ExecutorService thread;
+        final Map<Long, List<Subscription>> byUser = new HashMap<>();
+        final Map<String, Subscription> admins = new HashMap<>();
+
+        Shard(int index) {
+            this.thread = Executors.newSingleThreadExecutor(runnable -> {
+                Thread t = new Thread(runnable, "ws-fanout-" + index);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private static final class SessionOutbox {
+        final String sessionId;
+        final ArrayDeque<Message<byte[]>> queued = new ArrayDeque<>();
+        // Used to find a session's subscriptions on unsubscribe and disconnect
+        final Map<String, Placement> subscriptions = new ConcurrentHashMap<>();
+        boolean sending;
+        boolean closed;
+
+        SessionOutbox(String sessionId) {
+            this.sessionId = sessionId;
+        }
+    }
+
+    private final MessageChannel clientOutboundChannel;
+    private final Shard[] shards;
+    private final int maxQueuedPerSession;
+    private final Map<String, SessionOutbox> sessions = new ConcurrentHashMap<>();
+
+    private final Counter deliveredCounter;
+    private final Counter evictedCounter;
+    private final Counter sendLimitCounter;
+
+    public WebSocketFanOut(@Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+                           MeterRegistry meterRegistry,
+                           @Value("${notification.ws.shards:4}") int shardCount,
+                           @Value("${notification.ws.max-queued-per-session:256}") int maxQueuedPerSession) {
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.maxQueuedPerSession = maxQueuedPerSession;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+
+        Gauge.builder("notification.ws.sessions", sessions, Map::size)
+                .description("WebSocket sessions with notification subscriptions")
+                .register(meterRegistry);
+        this.deliveredCounter = Counter.builder("notification.ws.delivered").register(meterRegistry);
+        this.evictedCounter = Counter.builder("notification.ws.evicted")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.sendLimitCounter = Counter.builder("notification.ws.evicted")
+                .tag("reason", "send_limit")
+                .register(meterRegistry);
+    }
+
+    public static boolean isManagedDestination(String destination) {
+        return destination != null
+                && (ADMIN_TOPIC.equals(destination) || USER_TOPIC.matcher(destination).matches());
+    }
+
+    public void subscribe(String sessionId, String subscriptionId, String destination) {
+        SessionOutbox outbox = sessions.computeIfAbsent(sessionId, SessionOutbox::new);
+        Subscription subscription = new Subscription(subscriptionId, destination, outbox);
+        Matcher matcher = USER_TOPIC.matcher(destination);
+        if (matcher.matches()) {
+            long userId = Long.parseLong(matcher.group(1));
+            int index = shardFor(userId);
+            Shard shard = shards[index];
+            outbox.subscriptions.put(subscriptionId, new Placement(index, userId));
+            shard.thread.execute(() -> shard.byUser.computeIfAbsent(userId, id -> new ArrayList<>(1)).add(subscription));
+        } else {
+            int index = shardFor(sessionId.hashCode());
+            Shard shard = shards[index];
+            outbox.subscriptions.put(subscriptionId, new Placement(index, null));
+            shard.thread.execute(() -> shard.admins.put(adminKey(sessionId, subscriptionId), subscription));
+        }
+    }
+
+    /**
+     * @return false if the subscription was not one of ours and should go on to the broker
+     */
+    public boolean unsubscribe(String sessionId, String subscriptionId) {
+        SessionOutbox outbox = sessions.get(sessionId);
+        Placement placement = outbox == null ? null : outbox.subscriptions.remove(subscriptionId);
+        if (placement == null) {
+            return false;
+        }
+        removeSubscription(outbox, subscriptionId, placement);
+        return true;
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        if (CloseStatus.SESSION_NOT_RELIABLE.equals(event.getCloseStatus())) {
+            // Closed by the transport for exceeding its send buffer or time limit
+            sendLimitCounter.increment();
+        }
+        SessionOutbox outbox = sessions.remove(event.getSessionId());
+        if (outbox != null) {
+            close(outbox);
+        }
+    }
+
+    public void toUser(long userId, byte[] payload) {
+        Shard shard = shards[shardFor(userId)];
+        shard.thread.execute(() -> {
+            List<Subscription> subscriptions = shard.byUser.get(userId);
+            if (subscriptions != null) {
+                for (Subscription subscription : subscriptions) {
+                    enqueue(subscription, payload);
+                }
+            }
+        });
+    }
+
+    public void toAdmins(byte[] payload) {
+        for (Shard shard : shards) {
+            shard.thread.execute(() -> {
+                for (Subscription subscription : shard.admins.values()) {
+                    enqueue(subscription, payload);
+                }
+            });
+        }
+    }
+
+    // Called from the client outbound channel once the previous frame for a session was handed to its socket
+    public void afterSent(Message<?> message) {
+        if (!Boolean.TRUE.equals(message.getHeaders().get(FAN_OUT_HEADER))) {
+            return;
+        }
+        SessionOutbox outbox = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        if (outbox == null) {
+            return;
+        }
+        Message<byte[]> next;
+        synchronized (outbox) {
+            next = outbox.closed ? null : outbox.queued.poll();
+            if (next == null) {
+                outbox.sending = false;
+                return;
+            }
+        }
+        send(next);
+    }
+
+    private void enqueue(Subscription subscription, byte[] payload) {
+        SessionOutbox outbox = subscription.outbox();
+        Message<byte[]> message = toMessage(outbox.sessionId, subscription, payload);
+        synchronized (outbox) {
+            if (outbox.closed) {
+                return;
+            }
+            if (!outbox.sending) {
+                outbox.sending = true;
+            } else if (outbox.queued.size() < maxQueuedPerSession) {
+                outbox.queued.add(message);
+                return;
+            } else {
+                message = null;
+            }
+        }
+        if (message != null) {
+            send(message);
+        } else {
+            evict(outbox);
+        }
+    }
+
+    private void send(Message<byte[]> message) {
+        try {
+            clientOutboundChannel.send(message);
+            deliveredCounter.increment();
+        } catch (Exception e) {
+            log.warn("Failed to hand WebSocket message to session {}: {}",
+                    SimpMessageHeaderAccessor.getSessionId(message.getHeaders()), e.getMessage());
+            afterSent(message);
+        }
+    }
+
+    private void evict(SessionOutbox outbox) {
+        log.warn("Closing WebSocket session {}: more than {} notifications waiting", outbox.sessionId, maxQueuedPerSession);
+        evictedCounter.increment();
+        sessions.remove(outbox.sessionId, outbox);
+        close(outbox);
+
+        // STOMP closes the connection after sending an ERROR frame
+        StompHeaderAccessor error = StompHeaderAccessor.create(StompCommand.ERROR);
+        error.setSessionId(outbox.sessionId);
+        error.setMessage("Slow consumer: too many undelivered notifications");
+        error.setLeaveMutable(true);
+        clientOutboundChannel.send(MessageBuilder.createMessage(new byte[0], error.getMessageHeaders()));
+    }
+
+    private void close(SessionOutbox outbox) {
+        synchronized (outbox) {
+            outbox.closed = true;
+            outbox.queued.clear();
+        }
+        outbox.subscriptions.forEach((subscriptionId, placement) -> removeSubscription(outbox, subscriptionId, placement));
+        outbox.subscriptions.clear();
+    }
+
+    private void removeSubscription(SessionOutbox outbox, String subscriptionId, Placement placement) {
+        Shard shard = shards[placement.shard()];
+        shard.thread.execute(() -> {
+            if (placement.userId() == null) {
+                shard.admins.remove(adminKey(outbox.sessionId, subscriptionId));
+                return;
+            }
+            List<Subscription> subscriptions = shard.byUser.get(placement.userId());
+            if (subscriptions != null) {
+                subscriptions.removeIf(s -> s.outbox() == outbox && s.subscriptionId().equals(subscriptionId));
+                if (subscriptions.isEmpty()) {
+                    shard.byUser.remove(placement.userId());
+                }
+            }
+        });
+    }
+
+    private static String adminKey(String sessionId, String subscriptionId) {
+        return sessionId + "/" + subscriptionId;
+    }
+
+    private static Message<byte[]> toMessage(String sessionId, Subscription subscription, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscription.subscriptionId());
+        accessor.setDestination(subscription.destination());
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setHeader(FAN_OUT_HEADER, Boolean.TRUE);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+
+    private int shardFor(long key) {
+        return (int) Math.floorMod(key ^ (key >>> 32), (long) shards.length);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.thread.shutdown();
+        }
+        for (Shard shard : shards) {
+            shard.thread.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
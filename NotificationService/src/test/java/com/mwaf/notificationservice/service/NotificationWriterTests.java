@@ -0,0 +1,108 @@
+package com.mwaf.notificationservice.service;
+
+import com.mwaf.notificationservice.model.Notification;
+import com.mwaf.notificationservice.model.NotificationStatus;
+import com.mwaf.notificationservice.model.NotificationType;
+import com.mwaf.notificationservice.repository.EmailDispatchRepository;
+import com.mwaf.notificationservice.repository.EmailDispatchRepository.Sent;
+import com.mwaf.notificationservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationWriterTests {
+
+    private NotificationRepository notificationRepository;
+    private EmailDispatchRepository dispatchRepository;
+    private NotificationWriter writer;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository = mock(NotificationRepository.class);
+        dispatchRepository = mock(EmailDispatchRepository.class);
+
+        // Behaves like Hibernate: ids are assigned before the flush that may fail, and an
+        // entity that already has an id is merged, which fails when its row was never committed
+        when(notificationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Notification> rows = new ArrayList<>(invocation.getArgument(0));
+            for (Notification row : rows) {
+                if (row.getId() != null) {
+                    throw new ObjectOptimisticLockingFailureException(Notification.class, row.getId());
+                }
+                row.setId(sequence.incrementAndGet());
+            }
+            if (rows.stream().anyMatch(row -> row.getSubject() == null)) {
+                throw new DataIntegrityViolationException("null value in column \"subject\"");
+            }
+            return rows;
+        });
+
+        // Long enough for every write queued by a test to land in the same batch
+        writer = new NotificationWriter(notificationRepository, dispatchRepository,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                NotificationWriter.Mode.ASYNC, 100, 200, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.shutdown();
+    }
+
+    @Test
+    void invalidRowDoesNotFailTheRestOfItsBatch() throws InterruptedException {
+        List<Notification> saved = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+
+        writer.insert(notification("first"), n -> {
+            saved.add(n);
+            done.countDown();
+        });
+        writer.insert(notification(null), n -> saved.add(n));
+        CompletableFuture<Void> outcome = writer.record(new Sent(7L, LocalDateTime.now()));
+        writer.insert(notification("third"), n -> {
+            saved.add(n);
+            done.countDown();
+        });
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(outcome).succeedsWithin(5, TimeUnit.SECONDS);
+        assertThat(saved).extracting(Notification::getSubject).containsExactlyInAnyOrder("first", "third");
+        assertThat(saved).allSatisfy(n -> assertThat(n.getId()).isNotNull());
+
+        // Once with the whole batch, which fails, then once per insert
+        verify(notificationRepository, times(4)).saveAll(anyList());
+        // The batch failed before reaching the outcome, which is then applied on its own
+        verify(dispatchRepository, times(1)).applyOutcomes(anyList());
+    }
+
+    private static Notification notification(String subject) {
+        Notification notification = new Notification();
+        notification.setType(NotificationType.EMAIL);
+        notification.setStatus(NotificationStatus.SENT);
+        notification.setRecipientEmail("user@example.com");
+        notification.setSubject(subject);
+        notification.setContent("content");
+        return notification;
+    }
+}
@@ -4,11 +4,15 @@ import com.mwaf.orderservice.config.FeignConfig;
 
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import com.mwaf.orderservice.dto.ProductDTO;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+
 @FeignClient(name = "product-service", url = "${product.service.url}", configuration = FeignConfig.class)
 public interface ProductServiceClient {
 
@@ -17,4 +21,7 @@ public interface ProductServiceClient {
 
     @GetMapping("/api/products/{id}")
     ProductDTO getProductById(@PathVariable("id") Long id);
+
+    @PostMapping("/api/products/batch")
+    List<ProductDTO> getProductsByIds(@RequestBody List<Long> ids);
 }
\ No newline at end of file
@@ -21,8 +21,9 @@ import java.util.Arrays;
 public class SecurityConfig {
 
     @Bean
-    public JwtAuthenticationFilter jwtAuthenticationFilter(com.mwaf.orderservice.util.JwtUtil jwtUtil) {
-        return new JwtAuthenticationFilter(jwtUtil);
+    public JwtAuthenticationFilter jwtAuthenticationFilter(com.mwaf.orderservice.util.JwtUtil jwtUtil,
+            com.mwaf.orderservice.util.IdentityAssertion identityAssertion) {
+        return new JwtAuthenticationFilter(jwtUtil, identityAssertion);
     }
 
     @Bean
@@ -1,5 +1,6 @@
 package com.mwaf.orderservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.math.BigDecimal;
 
@@ -10,6 +11,7 @@ public class ProductDTO {
     private String description;
     private BigDecimal price;
     @JsonProperty("stock_quantity")
+    @JsonAlias("stockQuantity") // the batch endpoint returns the lean ProductInfo shape
     private Integer stockQuantity;
 
     public ProductDTO() {
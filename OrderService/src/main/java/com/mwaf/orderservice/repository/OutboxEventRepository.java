@@ -0,0 +1,27 @@
+package com.mwaf.orderservice.repository;
+
+import com.mwaf.orderservice.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Only the oldest pending event of each aggregate is eligible, so a later event can
+    // never overtake one that is waiting out a retry. SKIP LOCKED lets several relay
+    // instances drain the table without blocking each other.
+    @Query(value = "SELECT * FROM outbox_events o " +
+            "WHERE o.next_attempt_at <= :now " +
+            "AND NOT EXISTS (SELECT 1 FROM outbox_events p " +
+            "    WHERE p.aggregate_type = o.aggregate_type AND p.aggregate_id = o.aggregate_id AND p.id < o.id) " +
+            "ORDER BY o.id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query("SELECT MIN(o.createdDate) FROM OutboxEvent o")
+    LocalDateTime findOldestCreatedDate();
+}
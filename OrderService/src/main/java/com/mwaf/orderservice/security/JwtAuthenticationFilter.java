@@ -1,11 +1,15 @@
 package com.mwaf.orderservice.security;
 
+import com.mwaf.orderservice.util.IdentityAssertion;
 import com.mwaf.orderservice.util.JwtUtil;
+import com.mwaf.orderservice.util.TokenClaims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,53 +22,61 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     private final JwtUtil jwtUtil;
+    private final IdentityAssertion identityAssertion;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, IdentityAssertion identityAssertion) {
         this.jwtUtil = jwtUtil;
+        this.identityAssertion = identityAssertion;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        System.out.println("JwtAuthenticationFilter hit: " + request.getRequestURI());
+        // Identity forwarded by the gateway is trusted once its signature checks out;
+        // the token itself is only parsed for calls that bypass the gateway
+        Optional<TokenClaims> claims = identityAssertion.verify(request);
+        String token = null;
 
-        // Get the Authorization header
-        String authHeader = request.getHeader("Authorization");
-        System.out.println("Auth Header: " + authHeader);
+        if (claims.isEmpty()) {
+            // Get the Authorization header
+            String authHeader = request.getHeader("Authorization");
 
-        // If no Authorization header or not a Bearer token, continue to the next filter
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
-            return;
-        }
+            // If no Authorization header or not a Bearer token, continue to the next filter
+            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+                filterChain.doFilter(request, response);
+                return;
+            }
 
-        // Extract the token
-        String token = authHeader.substring(7);
+            // Extract the token
+            token = authHeader.substring(7);
+            claims = jwtUtil.verify(token);
+        }
 
         try {
-            // Extract user information from token
-            System.out.println("Processing token in JwtAuthenticationFilter: " + token);
-            String userId = jwtUtil.getUserIdFromToken(token);
-            Long customerId = jwtUtil.getCustomerIdFromToken(token);
-            List<String> roles = jwtUtil.getRolesFromToken(token);
+            // Extract user information from the verified identity
+            String userId = claims.map(TokenClaims::userId).orElse(null);
+            Long customerId = claims.map(TokenClaims::customerId).orElse(null);
+            List<String> roles = claims.map(TokenClaims::roles).orElse(List.of());
 
-            System.out.println("Extracted userId: " + userId + ", customerId: " + customerId + ", roles: " + roles);
+            log.debug("Extracted userId: {}, customerId: {}, roles: {}", userId, customerId, roles);
 
             if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                if (jwtUtil.validateToken(token)) {
-                    System.out.println("Token is valid");
+                if (claims.isPresent()) {
                     // Convert roles to Spring Security authorities
                     List<SimpleGrantedAuthority> authorities = roles.stream()
                             .map(SimpleGrantedAuthority::new)
                             .collect(Collectors.toList());
 
-                    // Create authentication token with userId as principal and token as credentials
+                    // Create authentication token with userId as principal and token (if any) as credentials
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userId,
                             token, authorities);
 
@@ -75,17 +87,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                     // Set the authentication in the SecurityContext
                     SecurityContextHolder.getContext().setAuthentication(authentication);
-                    System.out.println("SecurityContext set for user: " + userId);
+                    log.debug("SecurityContext set for user {} on {}", userId, request.getRequestURI());
                 } else {
-                    System.out.println("Token validation failed");
+                    log.debug("Identity validation failed for {}", request.getRequestURI());
                 }
-            } else {
-                System.out.println("UserId null or Context already set");
             }
 
         } catch (Exception e) {
-            System.out.println("Exception in JwtAuthenticationFilter: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Failed to authenticate request to {}: {}", request.getRequestURI(), e.getMessage());
             // If token validation fails, clear the security context
             SecurityContextHolder.clearContext();
         }
@@ -8,33 +8,40 @@ import com.mwaf.orderservice.client.ProductServiceClient;
 import com.mwaf.orderservice.config.RabbitMQConfig;
 import com.mwaf.orderservice.event.OrderPlacedEvent;
 import com.mwaf.orderservice.event.OrderStatusChangedEvent;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import com.mwaf.orderservice.repository.OrderRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class OrderService {
 
+    private static final String ORDER_AGGREGATE = "Order";
+
     private final OrderRepository orderRepository;
     private final ProductServiceClient productServiceClient;
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
 
     // Constructor injection for OrderRepository
     public OrderService(OrderRepository orderRepository,
             ProductServiceClient productServiceClient,
-            RabbitTemplate rabbitTemplate) {
+            OutboxService outboxService,
+            PlatformTransactionManager transactionManager) {
         this.orderRepository = orderRepository;
         this.productServiceClient = productServiceClient;
-        this.rabbitTemplate = rabbitTemplate;
+        this.outboxService = outboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    // make sure to import this at the top
-
     public Order createOrder(Order order) {
         // If orderDate is not provided, set it to the current date/time
         if (order.getOrderDate() == null) {
@@ -50,9 +57,19 @@ public class OrderService {
         // We'll accumulate total cost here
         BigDecimal totalAmount = BigDecimal.ZERO;
 
+        // 1. Fetch product info for all items from Product Service in one request
+        List<Long> productIds = order.getOrderItems().stream()
+                .map(OrderItem::getProductId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, ProductDTO> products = productServiceClient.getProductsByIds(productIds).stream()
+                .collect(Collectors.toMap(ProductDTO::getId, Function.identity()));
+
         for (OrderItem item : order.getOrderItems()) {
-            // 1. Fetch product info from Product Service
-            ProductDTO productDTO = productServiceClient.getProductById(item.getProductId());
+            ProductDTO productDTO = products.get(item.getProductId());
+            if (productDTO == null) {
+                throw new RuntimeException("Product not found with id: " + item.getProductId());
+            }
 
             // 2. Check if the requested quantity is available
             if (productDTO.getStockQuantity() < item.getQuantity()) {
@@ -71,41 +88,22 @@ public class OrderService {
             item.setUnitPrice(productDTO.getPrice());
         }
 
-        // 6. Save the order (with its items) to the repository FIRST to get an ID
-        Order savedOrder = orderRepository.save(order);
+        // 6. Save the order and its OrderPlacedEvent atomically; OutboxRelay publishes the
+        // event after commit. The transaction starts here so the product lookup above
+        // does not hold a DB connection.
+        return transactionTemplate.execute(status -> {
+            Order savedOrder = orderRepository.save(order);
 
-        // --- RabbitMQ: Publish OrderPlacedEvent for Stock Reduction ---
-        try {
             List<OrderPlacedEvent.OrderItemDto> itemDtos = savedOrder.getOrderItems().stream()
                     .map(item -> new OrderPlacedEvent.OrderItemDto(item.getProductId(), item.getQuantity()))
                     .collect(Collectors.toList());
-
-            // Assuming Order has a getCustomerId() or similar, if not we might default null
-            // or fix Model
-            // Checking Order model... assuming check passed or we add field later if
-            // missing.
-            // For now using safe null if field missing or explicit getter if valid.
-            // Order has customerId? OrderService:121 implies findByCustomerId.
-            // Let's assume Order entity has getCustomerId() or similar.
-            // Actually, in line 121: findByCustomerId(customerId).
-
             OrderPlacedEvent event = new OrderPlacedEvent(
                     savedOrder.getId(),
-                    savedOrder.getCustomerId(), // We need to verify if this getter exists
+                    savedOrder.getCustomerId(),
                     itemDtos);
-
-            rabbitTemplate.convertAndSend(
-                    RabbitMQConfig.ORDER_EXCHANGE,
-                    RabbitMQConfig.ROUTING_KEY,
-                    event);
-            // System.out.println("Published OrderPlacedEvent for order: " +
-            // savedOrder.getId());
-        } catch (Exception e) {
-            System.err.println("Failed to publish OrderPlacedEvent: " + e.getMessage());
-            // In production, we might want to flag this order or retry.
-        }
-
-        return savedOrder;
+            outboxService.enqueue(ORDER_AGGREGATE, savedOrder.getId(), RabbitMQConfig.ROUTING_KEY, event);
+            return savedOrder;
+        });
     }
 
     // public Order createOrder(Order order) {
@@ -125,6 +123,7 @@ public class OrderService {
     }
 
     // Update an existing order
+    @Transactional
     public Order updateOrder(Long id, Order orderDetails) {
         Order existingOrder = getOrderById(id);
         String oldStatus = existingOrder.getStatus();
@@ -137,18 +136,12 @@ public class OrderService {
         Order savedOrder = orderRepository.save(existingOrder);
 
         if (orderDetails.getStatus() != null && !orderDetails.getStatus().equals(oldStatus)) {
-            try {
-                OrderStatusChangedEvent event = new OrderStatusChangedEvent(
-                        savedOrder.getId(),
-                        savedOrder.getCustomerId(),
-                        savedOrder.getStatus());
-                rabbitTemplate.convertAndSend(
-                        RabbitMQConfig.ORDER_EXCHANGE,
-                        RabbitMQConfig.ORDER_STATUS_CHANGED_ROUTING_KEY,
-                        event);
-            } catch (Exception e) {
-                System.err.println("Failed to publish OrderStatusChangedEvent: " + e.getMessage());
-            }
+            OrderStatusChangedEvent event = new OrderStatusChangedEvent(
+                    savedOrder.getId(),
+                    savedOrder.getCustomerId(),
+                    savedOrder.getStatus());
+            outboxService.enqueue(ORDER_AGGREGATE, savedOrder.getId(),
+                    RabbitMQConfig.ORDER_STATUS_CHANGED_ROUTING_KEY, event);
         }
 
         return savedOrder;
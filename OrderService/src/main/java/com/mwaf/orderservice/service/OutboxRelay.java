@@ -0,0 +1,142 @@
+package com.mwaf.orderservice.service;
+
+import com.mwaf.orderservice.config.RabbitMQConfig;
+import com.mwaf.orderservice.model.OutboxEvent;
+import com.mwaf.orderservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox table into RabbitMQ. Each batch is sent on one channel and
+ * only deleted after the broker confirms every message, so an event is never
+ * lost; it may be delivered twice if the relay dies between confirm and
+ * commit, which consumers must tolerate.
+ *
+ * Failed batches are retried with exponential backoff. Metrics:
+ * {@code outbox.pending}, {@code outbox.lag.seconds} (age of the oldest
+ * unpublished event), {@code outbox.published} and {@code outbox.publish.failures}.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long confirmTimeoutMs;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Counter publishedCounter;
+    private final Counter failureCounter;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       RabbitTemplate rabbitTemplate,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${outbox.relay.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                .description("Events waiting in the outbox")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag.seconds", lagSeconds, AtomicLong::get)
+                .description("Age of the oldest unpublished outbox event")
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("outbox.published").register(meterRegistry);
+        this.failureCounter = Counter.builder("outbox.publish.failures").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        int published;
+        do {
+            Integer count = transactionTemplate.execute(status -> publishBatch());
+            published = count == null ? 0 : count;
+        } while (published == batchSize);
+        updateBacklogMetrics();
+    }
+
+    private int publishBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(LocalDateTime.now(), batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (OutboxEvent event : batch) {
+                    operations.send(RabbitMQConfig.ORDER_EXCHANGE, event.getRoutingKey(), toMessage(event));
+                }
+                operations.waitForConfirmsOrDie(confirmTimeoutMs);
+                return null;
+            });
+        } catch (Exception e) {
+            failureCounter.increment();
+            logger.warn("Publishing {} outbox events failed, will retry: {}", batch.size(), e.getMessage());
+            scheduleRetry(batch, e);
+            return 0;
+        }
+        outboxEventRepository.deleteAllInBatch(batch);
+        publishedCounter.increment(batch.size());
+        return batch.size();
+    }
+
+    private Message toMessage(OutboxEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        // Same header Jackson2JsonMessageConverter sets; consumers map it to their own classes
+        properties.setHeader("__TypeId__", event.getEventType());
+        properties.setMessageId("order-outbox-" + event.getId());
+        return new Message(event.getPayload().getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    private void scheduleRetry(List<OutboxEvent> batch, Exception cause) {
+        String error = String.valueOf(cause.getMessage());
+        if (error.length() > 1000) {
+            error = error.substring(0, 1000);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxEvent event : batch) {
+            int attempts = event.getAttempts() + 1;
+            Duration backoff = Duration.ofSeconds(1L << Math.min(attempts - 1, 20));
+            event.setAttempts(attempts);
+            event.setNextAttemptAt(now.plus(backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff));
+            event.setLastError(error);
+        }
+    }
+
+    private void updateBacklogMetrics() {
+        pending.set(outboxEventRepository.count());
+        LocalDateTime oldest = outboxEventRepository.findOldestCreatedDate();
+        lagSeconds.set(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).getSeconds());
+    }
+}
@@ -0,0 +1,46 @@
+package com.mwaf.orderservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mwaf.orderservice.model.OutboxEvent;
+import com.mwaf.orderservice.repository.OutboxEventRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records events for later publication by {@link OutboxRelay}. Must run inside
+ * the transaction that changes the aggregate, so the event exists if and only
+ * if the change was committed.
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String aggregateType, Long aggregateId, String routingKey, Object event) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setAggregateType(aggregateType);
+        outboxEvent.setAggregateId(aggregateId);
+        outboxEvent.setEventType(event.getClass().getName());
+        outboxEvent.setRoutingKey(routingKey);
+        try {
+            outboxEvent.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize " + event.getClass().getSimpleName(), e);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        outboxEvent.setCreatedDate(now);
+        outboxEvent.setNextAttemptAt(now);
+        outboxEventRepository.save(outboxEvent);
+    }
+}
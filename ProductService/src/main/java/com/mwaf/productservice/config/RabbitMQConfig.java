@@ -5,6 +5,7 @@ import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,6 +16,10 @@ public class RabbitMQConfig {
     public static final String ORDER_PLACED_QUEUE = "order-placed-queue";
     public static final String ROUTING_KEY = "order.placed";
 
+    // Product change events consumed by services that cache product data
+    public static final String PRODUCT_EXCHANGE = "product-exchange";
+    public static final String PRODUCT_CHANGED_ROUTING_KEY = "product.changed";
+
     // DLQ Constants
     public static final String DLX_EXCHANGE = "dlx.exchange";
     public static final String ORDER_PLACED_DLQ = "order-placed-dlq";
@@ -25,6 +30,11 @@ public class RabbitMQConfig {
         return new TopicExchange(ORDER_EXCHANGE);
     }
 
+    @Bean
+    public TopicExchange productExchange() {
+        return new TopicExchange(PRODUCT_EXCHANGE);
+    }
+
     @Bean
     public Queue orderPlacedQueue() {
         return QueueBuilder.durable(ORDER_PLACED_QUEUE)
@@ -75,4 +85,23 @@ public class RabbitMQConfig {
         factory.setDefaultRequeueRejected(false);
         return factory;
     }
+
+    // Delivers OrderPlacedEvents as lists so a whole batch is applied in one transaction
+    // and acknowledged together once the listener returns.
+    @Bean
+    public org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory batchRabbitListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            @Value("${order-events.batch-size:50}") int batchSize,
+            @Value("${order-events.receive-timeout-ms:100}") long receiveTimeoutMs) {
+        org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory factory = new org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(jsonMessageConverter());
+        factory.setDefaultRequeueRejected(false);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        return factory;
+    }
 }
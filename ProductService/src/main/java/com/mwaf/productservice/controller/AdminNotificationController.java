@@ -2,6 +2,7 @@ package com.mwaf.productservice.controller;
 
 import com.mwaf.productservice.model.AdminNotification;
 import com.mwaf.productservice.service.AdminNotificationService;
+import com.mwaf.productservice.service.LowStockDetector;
 import com.mwaf.productservice.service.ProductService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -16,10 +17,12 @@ public class AdminNotificationController {
 
     private final AdminNotificationService notificationService;
     private final ProductService productService;
+    private final LowStockDetector lowStockDetector;
 
-    public AdminNotificationController(AdminNotificationService notificationService, ProductService productService) {
+    public AdminNotificationController(AdminNotificationService notificationService, ProductService productService, LowStockDetector lowStockDetector) {
         this.notificationService = notificationService;
         this.productService = productService;
+        this.lowStockDetector = lowStockDetector;
     }
 
     @GetMapping
@@ -48,8 +51,8 @@ public class AdminNotificationController {
     @PostMapping("/check-low-stock")
     public ResponseEntity<String> checkLowStockForAllProducts() {
         try {
-            notificationService.checkLowStockForAllProducts();
-            return ResponseEntity.ok("Low stock check completed successfully");
+            int queued = lowStockDetector.rescan();
+            return ResponseEntity.ok("Low stock check completed successfully, " + queued + " new notifications");
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error checking low stock: " + e.getMessage());
         }
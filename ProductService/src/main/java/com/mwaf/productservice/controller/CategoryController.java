@@ -3,12 +3,17 @@ package com.mwaf.productservice.controller;
 import com.mwaf.productservice.dto.CategoryRequest;
 import com.mwaf.productservice.model.Category;
 import com.mwaf.productservice.service.CategoryService;
+import com.mwaf.productservice.service.EntityTagService;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -16,21 +21,35 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final EntityTagService entityTagService;
+    private final CacheControl catalogCacheControl;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, EntityTagService entityTagService,
+                              @Value("${product.catalog-cache.shared-max-age-seconds:30}") long sharedMaxAgeSeconds) {
         this.categoryService = categoryService;
+        this.entityTagService = entityTagService;
+        this.catalogCacheControl = CacheControl.maxAge(Duration.ZERO)
+                .sMaxAge(Duration.ofSeconds(sharedMaxAgeSeconds))
+                .cachePublic();
     }
 
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
+    public ResponseEntity<List<Category>> getAllCategories(WebRequest request) {
+        if (request.checkNotModified(entityTagService.categories())) {
+            return null;
+        }
         List<Category> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok().cacheControl(catalogCacheControl).body(categories);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<Category> getCategoryById(@PathVariable Long id, WebRequest request) {
+        String etag = entityTagService.category(id);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
         Category category = categoryService.getCategoryById(id);
-        return ResponseEntity.ok(category);
+        return ResponseEntity.ok().cacheControl(catalogCacheControl).body(category);
     }
 
     @PostMapping
@@ -39,6 +58,7 @@ public class CategoryController {
         Category category = new Category();
         category.setName(request.getName());
         category.setSlug(request.getSlug());
+        category.setLowStockThreshold(request.getLowStockThreshold());
         
         Category createdCategory = categoryService.createCategory(category);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdCategory);
@@ -50,6 +70,7 @@ public class CategoryController {
         Category category = new Category();
         category.setName(request.getName());
         category.setSlug(request.getSlug());
+        category.setLowStockThreshold(request.getLowStockThreshold());
         
         Category updatedCategory = categoryService.updateCategory(id, category);
         return ResponseEntity.ok(updatedCategory);
@@ -1,17 +1,28 @@
 package com.mwaf.productservice.controller;
 
+import com.mwaf.productservice.dto.FacetCountsResponse;
 import com.mwaf.productservice.dto.ProductRequest;
 import com.mwaf.productservice.dto.ProductInfo;
+import com.mwaf.productservice.dto.ProductPage;
+import com.mwaf.productservice.dto.ProductSearchResponse;
 import com.mwaf.productservice.model.Product;
+import com.mwaf.productservice.service.EntityTagService;
+import com.mwaf.productservice.service.ProductFacetService;
+import com.mwaf.productservice.service.ProductListingService;
+import com.mwaf.productservice.service.ProductSearchService;
 import com.mwaf.productservice.service.ProductService;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 @RestController
@@ -19,10 +30,26 @@ import java.util.Map;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductListingService listingService;
+    private final ProductSearchService searchService;
+    private final ProductFacetService facetService;
+    private final EntityTagService entityTagService;
+    // Without an explicit header Spring Security sends no-store, which keeps the gateway from caching anything
+    private final CacheControl catalogCacheControl;
 
     // Constructor injection for ProductService
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductListingService listingService,
+                             ProductSearchService searchService, ProductFacetService facetService,
+                             EntityTagService entityTagService,
+                             @Value("${product.catalog-cache.shared-max-age-seconds:30}") long sharedMaxAgeSeconds) {
         this.productService = productService;
+        this.listingService = listingService;
+        this.searchService = searchService;
+        this.facetService = facetService;
+        this.entityTagService = entityTagService;
+        this.catalogCacheControl = CacheControl.maxAge(Duration.ZERO)
+                .sMaxAge(Duration.ofSeconds(sharedMaxAgeSeconds))
+                .cachePublic();
     }
 
     // Create a new product
@@ -41,6 +68,7 @@ public class ProductController {
         product.setDescription(productRequest.getDescription());
         product.setPrice(productRequest.getPrice());
         product.setStockQuantity(productRequest.getStockQuantity());
+        product.setLowStockThreshold(productRequest.getLowStockThreshold());
         
         Product saved = productService.createProduct(product, file, productRequest.getCategoryId());
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
@@ -48,16 +76,54 @@ public class ProductController {
 
     // Retrieve a product by its ID
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+    public ResponseEntity<Product> getProductById(@PathVariable Long id, WebRequest request) {
+        // Answer 304 from the version stamp alone, before loading the entity
+        String etag = entityTagService.product(id);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
         Product product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok().cacheControl(catalogCacheControl).body(product);
     }
 
     // Retrieve all products
     @GetMapping
     public ResponseEntity<List<Product>> getAllProducts() {
         List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok().cacheControl(catalogCacheControl).body(products);
+    }
+
+    // Paginated listing: pass the returned nextCursor back to get the following page
+    @GetMapping("/page")
+    public ResponseEntity<ProductPage> getProductPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Integer minStock,
+            @RequestParam(required = false) Integer maxStock) {
+        return ResponseEntity.ok().cacheControl(catalogCacheControl)
+                .body(listingService.getProducts(cursor, size, sort, categoryId, minStock, maxStock));
+    }
+
+    // Full-text search over name, description and category, best matches first
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchResponse> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok().cacheControl(catalogCacheControl).body(searchService.search(query, page, size));
+    }
+
+    // Facet counts for the storefront filters, served from in-memory counters
+    @GetMapping("/facets")
+    public ResponseEntity<FacetCountsResponse> getFacets(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String price,
+            @RequestParam(required = false) String rating,
+            @RequestParam(required = false) String stock) {
+        return ResponseEntity.ok().cacheControl(catalogCacheControl)
+                .body(facetService.getFacetCounts(category, price, rating, stock));
     }
 
     // Update an existing product
@@ -76,6 +142,7 @@ public class ProductController {
         product.setDescription(productRequest.getDescription());
         product.setPrice(productRequest.getPrice());
         product.setStockQuantity(productRequest.getStockQuantity());
+        product.setLowStockThreshold(productRequest.getLowStockThreshold());
         
         return ResponseEntity.ok(productService.update(id, product, file, productRequest.getCategoryId()));
     }
@@ -94,7 +161,11 @@ public class ProductController {
     }
 
     @GetMapping("/{id}/info")
-    public ResponseEntity<ProductInfo> getProductInfo(@PathVariable Long id) {
+    public ResponseEntity<ProductInfo> getProductInfo(@PathVariable Long id, WebRequest request) {
+        String etag = entityTagService.productInfo(id);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
         Product product = productService.getProductById(id);
         ProductInfo productInfo = new ProductInfo();
         productInfo.setId(product.getId());
@@ -102,7 +173,13 @@ public class ProductController {
         productInfo.setImageUrl(product.getImageUrl());
         productInfo.setPrice(product.getPrice());
         productInfo.setStockQuantity(product.getStockQuantity());
-        return ResponseEntity.ok(productInfo);
+        return ResponseEntity.ok().cacheControl(catalogCacheControl).body(productInfo);
+    }
+
+    // Batch lookup used by OrderService and CartService to resolve many products in one hop
+    @PostMapping("/batch")
+    public ResponseEntity<List<ProductInfo>> getProductInfos(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(productService.getProductInfos(ids));
     }
 
     // Get products by stock level
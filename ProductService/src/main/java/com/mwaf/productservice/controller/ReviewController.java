@@ -3,27 +3,28 @@ package com.mwaf.productservice.controller;
 import com.mwaf.productservice.dto.ReviewRequest;
 import com.mwaf.productservice.dto.ReviewSummaryResponse;
 import com.mwaf.productservice.model.ProductReview;
+import com.mwaf.productservice.service.EntityTagService;
 import com.mwaf.productservice.service.ReviewService;
-import com.mwaf.productservice.util.JwtUtil;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/products/{productId}/reviews")
 public class ReviewController {
 
     private final ReviewService reviewService;
-    private final JwtUtil jwtUtil;
+    private final EntityTagService entityTagService;
 
-    public ReviewController(ReviewService reviewService, JwtUtil jwtUtil) {
+    public ReviewController(ReviewService reviewService, EntityTagService entityTagService) {
         this.reviewService = reviewService;
-        this.jwtUtil = jwtUtil;
+        this.entityTagService = entityTagService;
     }
 
     @PostMapping
@@ -31,10 +32,9 @@ public class ReviewController {
     public ResponseEntity<ProductReview> createOrUpdateReview(
             @PathVariable Long productId,
             @Valid @RequestBody ReviewRequest request,
-            HttpServletRequest httpRequest) {
+            Authentication authentication) {
         
-        String token = extractToken(httpRequest);
-        Long authorUserId = Long.parseLong(jwtUtil.getUserId(token));
+        Long authorUserId = Long.parseLong(authentication.getName());
         
         ProductReview review = reviewService.createOrUpdateReview(productId, authorUserId, request);
         return ResponseEntity.status(HttpStatus.CREATED).body(review);
@@ -52,7 +52,10 @@ public class ReviewController {
     }
 
     @GetMapping("/summary")
-    public ResponseEntity<ReviewSummaryResponse> getReviewSummary(@PathVariable Long productId) {
+    public ResponseEntity<ReviewSummaryResponse> getReviewSummary(@PathVariable Long productId, WebRequest request) {
+        if (request.checkNotModified(entityTagService.reviewSummary(productId))) {
+            return null;
+        }
         ReviewSummaryResponse summary = reviewService.getReviewSummary(productId);
         return ResponseEntity.ok(summary);
     }
@@ -62,20 +65,11 @@ public class ReviewController {
     public ResponseEntity<Void> deleteReview(
             @PathVariable Long productId,
             @PathVariable Long reviewId,
-            HttpServletRequest httpRequest) {
+            Authentication authentication) {
         
-        String token = extractToken(httpRequest);
-        Long authorUserId = Long.parseLong(jwtUtil.getUserId(token));
+        Long authorUserId = Long.parseLong(authentication.getName());
         
         reviewService.deleteReview(productId, reviewId, authorUserId);
         return ResponseEntity.noContent().build();
     }
-
-    private String extractToken(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            return authHeader.substring(7);
-        }
-        throw new RuntimeException("No valid JWT token found");
-    }
 } 
\ No newline at end of file
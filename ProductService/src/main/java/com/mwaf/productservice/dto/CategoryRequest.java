@@ -1,5 +1,6 @@
 package com.mwaf.productservice.dto;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
@@ -15,4 +16,7 @@ public class CategoryRequest {
     @NotBlank(message = "Category slug is required")
     @Size(min = 2, max = 50, message = "Category slug must be between 2 and 50 characters")
     private String slug;
+
+    @Min(value = 0, message = "Low stock threshold must be non-negative")
+    private Integer lowStockThreshold;
 } 
\ No newline at end of file
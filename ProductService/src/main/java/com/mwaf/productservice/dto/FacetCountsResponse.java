@@ -0,0 +1,15 @@
+package com.mwaf.productservice.dto;
+
+import java.util.Map;
+
+/**
+ * Product counts per facet value. Each facet is counted with every requested
+ * filter applied except its own, so the storefront can show how many products
+ * each alternative would yield.
+ */
+public record FacetCountsResponse(long total,
+                                  Map<String, Long> categories,
+                                  Map<String, Long> priceRanges,
+                                  Map<String, Long> ratings,
+                                  Map<String, Long> stock) {
+}
@@ -0,0 +1,8 @@
+package com.mwaf.productservice.dto;
+
+import java.math.BigDecimal;
+
+// The product columns that decide which facet buckets a product falls into
+public record FacetSource(Long productId, Long categoryId, BigDecimal price, BigDecimal averageRating, int stockQuantity,
+                          long stockVersion) {
+}
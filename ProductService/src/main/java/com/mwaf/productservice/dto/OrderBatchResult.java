@@ -0,0 +1,17 @@
+package com.mwaf.productservice.dto;
+
+import com.mwaf.productservice.event.OrderPlacedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class OrderBatchResult {
+    private final List<Long> appliedOrderIds;
+    // Orders that could not be fully reserved; none of their lines were applied
+    private final List<OrderPlacedEvent> rejected;
+    // Redeliveries of orders that were already processed
+    private final int duplicates;
+}
@@ -1,11 +1,15 @@
 package com.mwaf.productservice.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
 
 @Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
 public class ProductInfo {
     private Long id;
     private String name;
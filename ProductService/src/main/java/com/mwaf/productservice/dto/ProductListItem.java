@@ -0,0 +1,14 @@
+package com.mwaf.productservice.dto;
+
+import java.math.BigDecimal;
+
+// List-view projection of a product: no description, images or category proxy
+public record ProductListItem(Long id,
+                              String name,
+                              String imageUrl,
+                              String thumbnailUrl,
+                              BigDecimal price,
+                              Integer stockQuantity,
+                              BigDecimal averageRating,
+                              Long categoryId) {
+}
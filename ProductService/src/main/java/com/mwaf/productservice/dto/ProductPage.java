@@ -0,0 +1,10 @@
+package com.mwaf.productservice.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is opaque to
+ * clients and is null on the last page.
+ */
+public record ProductPage(List<ProductListItem> items, String nextCursor) {
+}
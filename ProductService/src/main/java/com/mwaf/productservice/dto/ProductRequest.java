@@ -26,4 +26,7 @@ public class ProductRequest {
     private Integer stockQuantity;
     
     private Long categoryId;
+
+    @Min(value = 0, message = "Low stock threshold must be non-negative")
+    private Integer lowStockThreshold;
 } 
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.mwaf.productservice.dto;
+
+import java.util.List;
+
+public record ProductSearchResponse(List<ProductListItem> items, int totalHits, int page, int size) {
+}
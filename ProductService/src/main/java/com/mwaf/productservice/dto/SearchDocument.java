@@ -0,0 +1,5 @@
+package com.mwaf.productservice.dto;
+
+// The text fields of a product that feed the search index
+public record SearchDocument(Long productId, String name, String description, String categoryName) {
+}
@@ -0,0 +1,18 @@
+package com.mwaf.productservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// In-process only: raised for every stock write, decrements being too frequent to broadcast
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockLevelChangedEvent {
+    private Long productId;
+    private int stockQuantity;
+    // products.stock_version as returned by the UPDATE that made this change, so
+    // each version names exactly one stock level. Events are published after
+    // commit from whichever thread committed, so they can arrive out of order.
+    private long stockVersion;
+}
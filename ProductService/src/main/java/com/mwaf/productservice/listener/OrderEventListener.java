@@ -1,41 +1,44 @@
 package com.mwaf.productservice.listener;
 
 import com.mwaf.productservice.config.RabbitMQConfig;
+import com.mwaf.productservice.dto.OrderBatchResult;
 import com.mwaf.productservice.event.OrderPlacedEvent;
 import com.mwaf.productservice.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class OrderEventListener {
 
     private final ProductService productService;
+    private final AmqpTemplate amqpTemplate;
+
+    @RabbitListener(queues = RabbitMQConfig.ORDER_PLACED_QUEUE, containerFactory = "batchRabbitListenerContainerFactory")
+    public void handleOrderPlacedEvents(List<OrderPlacedEvent> events) {
+        log.info("Received batch of {} OrderPlacedEvents", events.size());
 
-    @RabbitListener(queues = RabbitMQConfig.ORDER_PLACED_QUEUE)
-    public void handleOrderPlacedEvent(OrderPlacedEvent event) {
-        log.info("Received OrderPlacedEvent for order: {}", event.getOrderId());
-
-        // Iterate through items and reduce stock
-        // Note: Ideally, this should be idempotent and handle potential partial
-        // failures or race conditions.
-        // For this implementation, we will iterate and call reduceStock for each item.
-        if (event.getItems() != null) {
-            for (OrderPlacedEvent.OrderItemDto item : event.getItems()) {
-                try {
-                    // Assuming ProductService has a method to reduce stock or update quantity
-                    // We need to check ProductService interface. If reduceStock doesn't exist,
-                    // we'll need to create it.
-                    log.info("Reducing stock for product: {} by {}", item.getProductId(), item.getQuantity());
-                    productService.reduceStock(item.getProductId(), item.getQuantity());
-                } catch (Exception e) {
-                    log.error("Failed to reduce stock for product: " + item.getProductId(), e);
-                    throw new RuntimeException("Failed to reduce stock, routing to DLQ", e);
-                }
+        // If this throws, nothing was committed and the whole batch goes to the DLQ;
+        // replaying it later is safe because processed orders are skipped.
+        OrderBatchResult result = productService.applyOrders(events);
+
+        for (OrderPlacedEvent rejected : result.getRejected()) {
+            log.error("Insufficient stock for order {}, routing to DLQ", rejected.getOrderId());
+            try {
+                amqpTemplate.convertAndSend(RabbitMQConfig.DLX_EXCHANGE, RabbitMQConfig.DLQ_ROUTING_KEY, rejected);
+            } catch (Exception e) {
+                // The rejection is still recorded with status REJECTED in processed_order_events
+                log.error("Failed to route rejected order {} to DLQ: {}", rejected.getOrderId(), e.getMessage());
             }
         }
+
+        log.info("Applied {} orders, rejected {}, skipped {} duplicates",
+                result.getAppliedOrderIds().size(), result.getRejected().size(), result.getDuplicates());
     }
 }
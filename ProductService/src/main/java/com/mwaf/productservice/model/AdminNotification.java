@@ -10,7 +10,8 @@ import lombok.Setter;
 public class AdminNotification extends Auditable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "admin_notifications_seq")
+    @SequenceGenerator(name = "admin_notifications_seq", sequenceName = "admin_notifications_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -20,4 +20,8 @@ public class Category extends Auditable {
 
     @Column(name = "slug", nullable = false, unique = true, length = 50)
     private String slug;
+
+    // Low-stock threshold for products in this category; null means the global default
+    @Column(name = "low_stock_threshold")
+    private Integer lowStockThreshold;
 } 
\ No newline at end of file
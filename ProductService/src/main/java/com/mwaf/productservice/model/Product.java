@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
@@ -15,27 +16,48 @@ import lombok.Setter;
 public class Product extends Auditable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     private String name;
     private String description;
     private BigDecimal price;
 
-    // Represents the available quantity in stock.
+    // Represents the available quantity in stock. Only the initial insert goes
+    // through JPA; later changes are made in SQL by StockMutationRepository so a
+    // save from a stale read cannot undo a concurrent decrement.
     @JsonProperty("stock_quantity")
+    @Column(name = "stock_quantity", updatable = false)
     private Integer stockQuantity;
+
+    // Incremented by every stock write; see StockLevelChangedEvent
+    @JsonIgnore
+    @Column(name = "stock_version", nullable = false, updatable = false)
+    private long stockVersion;
     
     @Column(name = "image_url", length = 512)   // generous length
     private String imageUrl;
+
+    // Downscaled copies of imageUrl, filled in asynchronously after upload
+    @Column(name = "thumbnail_url", length = 512)
+    private String thumbnailUrl;
+
+    @Column(name = "medium_url", length = 512)
+    private String mediumUrl;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private Category category;
     
-    @Column(name = "average_rating", precision = 2, scale = 1)
+    // Maintained in SQL from product_review_stats, see ReviewStatsRepository
+    @Column(name = "average_rating", precision = 2, scale = 1, updatable = false)
     private BigDecimal averageRating;
+
+    // Overrides the category's threshold when set
+    @Column(name = "low_stock_threshold")
+    private Integer lowStockThreshold;
     
     @OneToMany(mappedBy = "product",
             cascade = CascadeType.ALL,
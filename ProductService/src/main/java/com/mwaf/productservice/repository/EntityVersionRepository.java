@@ -0,0 +1,73 @@
+package com.mwaf.productservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cheap version stamps for read endpoints, built from audit columns and row
+ * counts so a conditional GET can be answered without loading the entity.
+ * Every mutation of the underlying rows changes the stamp.
+ */
+@Repository
+public class EntityVersionRepository {
+
+    // The product JSON embeds its category and image list, so both count toward its version
+    private static final String PRODUCT_VERSION_SQL =
+            "SELECT p.modified_date, c.modified_date, " +
+            "(SELECT COUNT(*) FROM product_images i WHERE i.product_id = p.id) " +
+            "FROM products p LEFT JOIN categories c ON c.id = p.category_id WHERE p.id = ?";
+
+    private static final String CATEGORY_VERSION_SQL =
+            "SELECT modified_date FROM categories WHERE id = ?";
+
+    // The count catches deletions, which leave MAX(modified_date) unchanged
+    private static final String CATEGORIES_VERSION_SQL =
+            "SELECT COUNT(*), MAX(modified_date) FROM categories";
+
+    // Every review write touches the product's stats row, so its modified_date is enough
+    private static final String REVIEWS_VERSION_SQL =
+            "SELECT review_count, modified_date FROM product_review_stats WHERE product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EntityVersionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<String> productVersion(Long productId) {
+        List<String> versions = jdbcTemplate.query(PRODUCT_VERSION_SQL,
+                (rs, rowNum) -> millis(rs, 1) + "-" + millis(rs, 2) + "-" + rs.getLong(3),
+                productId);
+        return versions.stream().findFirst();
+    }
+
+    public Optional<String> categoryVersion(Long categoryId) {
+        List<String> versions = jdbcTemplate.query(CATEGORY_VERSION_SQL,
+                (rs, rowNum) -> String.valueOf(millis(rs, 1)),
+                categoryId);
+        return versions.stream().findFirst();
+    }
+
+    public String categoriesVersion() {
+        return jdbcTemplate.queryForObject(CATEGORIES_VERSION_SQL,
+                (rs, rowNum) -> rs.getLong(1) + "-" + millis(rs, 2));
+    }
+
+    public String reviewsVersion(Long productId) {
+        List<String> versions = jdbcTemplate.query(REVIEWS_VERSION_SQL,
+                (rs, rowNum) -> rs.getLong(1) + "-" + millis(rs, 2),
+                productId);
+        return versions.stream().findFirst().orElse("0-0");
+    }
+
+    private static long millis(ResultSet rs, int column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp != null ? timestamp.getTime() : 0L;
+    }
+}
@@ -0,0 +1,74 @@
+package com.mwaf.productservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads the stock and threshold columns the low-stock detector keeps in
+ * memory, without loading Product entities.
+ */
+@Repository
+public class LowStockRepository {
+
+    public record StockLevel(Long productId, Long categoryId, Integer productThreshold, int stockQuantity,
+                             long stockVersion) {
+    }
+
+    private static final String SELECT_STOCK_LEVELS =
+            "SELECT id, category_id, low_stock_threshold, stock_quantity, stock_version FROM products";
+
+    private static final String SELECT_CATEGORY_THRESHOLDS =
+            "SELECT id, low_stock_threshold FROM categories WHERE low_stock_threshold IS NOT NULL";
+
+    // Parameter: the global default threshold
+    private static final String SELECT_LOW_WITHOUT_UNREAD_ALERT =
+            "SELECT p.id, p.category_id, p.low_stock_threshold, p.stock_quantity, p.stock_version FROM products p " +
+            "LEFT JOIN categories c ON c.id = p.category_id " +
+            "WHERE p.stock_quantity < COALESCE(p.low_stock_threshold, c.low_stock_threshold, ?) " +
+            "AND NOT EXISTS (SELECT 1 FROM admin_notifications n " +
+            "WHERE n.product_id = p.id AND n.type = 'LOW_STOCK' AND n.read = false)";
+
+    private static final RowMapper<StockLevel> ROW_MAPPER = (rs, rowNum) -> new StockLevel(
+            rs.getLong(1),
+            rs.getObject(2, Long.class),
+            rs.getObject(3, Integer.class),
+            rs.getInt(4),
+            rs.getLong(5));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LowStockRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachStockLevel(Consumer<StockLevel> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_STOCK_LEVELS);
+            ps.setFetchSize(1000);
+            return ps;
+        }, rs -> {
+            consumer.accept(ROW_MAPPER.mapRow(rs, 0));
+        });
+    }
+
+    public Map<Long, Integer> findCategoryThresholds() {
+        Map<Long, Integer> thresholds = new HashMap<>();
+        jdbcTemplate.query(SELECT_CATEGORY_THRESHOLDS, rs -> {
+            thresholds.put(rs.getLong(1), rs.getInt(2));
+        });
+        return thresholds;
+    }
+
+    public List<StockLevel> findLowWithoutUnreadAlert(int defaultThreshold) {
+        return jdbcTemplate.query(SELECT_LOW_WITHOUT_UNREAD_ALERT, ROW_MAPPER, defaultThreshold);
+    }
+}
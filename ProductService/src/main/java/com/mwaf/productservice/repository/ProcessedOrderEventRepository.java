@@ -0,0 +1,60 @@
+package com.mwaf.productservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Ledger of OrderPlacedEvents whose stock effect has been applied (or that were
+ * rejected), used to make redelivered events no-ops.
+ */
+@Repository
+public class ProcessedOrderEventRepository {
+
+    private static final String CLAIM_SQL =
+            "INSERT INTO processed_order_events (order_id, status, processed_at) " +
+            "SELECT id, 'APPLIED', LOCALTIMESTAMP FROM unnest(?::bigint[]) AS t(id) " +
+            "ON CONFLICT (order_id) DO NOTHING " +
+            "RETURNING order_id";
+
+    private static final String MARK_REJECTED_SQL =
+            "UPDATE processed_order_events SET status = 'REJECTED' WHERE order_id = ANY(?::bigint[])";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProcessedOrderEventRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records the orders as processed. A concurrent transaction claiming the
+     * same order blocks on the primary key until this one finishes.
+     *
+     * @return the ids that had not been processed before
+     */
+    public Set<Long> claim(Collection<Long> orderIds) {
+        Long[] ids = orderIds.toArray(Long[]::new);
+        Set<Long> claimed = new HashSet<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(CLAIM_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", ids));
+            return ps;
+        }, rs -> {
+            claimed.add(rs.getLong(1));
+        });
+        return claimed;
+    }
+
+    public void markRejected(Collection<Long> orderIds) {
+        Long[] ids = orderIds.toArray(Long[]::new);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(MARK_REJECTED_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", ids));
+            return ps;
+        });
+    }
+}
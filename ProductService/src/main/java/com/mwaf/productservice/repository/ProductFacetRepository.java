@@ -0,0 +1,47 @@
+package com.mwaf.productservice.repository;
+
+import com.mwaf.productservice.dto.FacetSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Repository
+public class ProductFacetRepository {
+
+    private static final String SELECT_SOURCES =
+            "SELECT id, category_id, price, average_rating, stock_quantity, stock_version FROM products";
+
+    private static final RowMapper<FacetSource> ROW_MAPPER = (rs, rowNum) -> new FacetSource(
+            rs.getLong("id"),
+            rs.getObject("category_id", Long.class),
+            rs.getBigDecimal("price"),
+            rs.getBigDecimal("average_rating"),
+            rs.getInt("stock_quantity"),
+            rs.getLong("stock_version"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductFacetRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachSource(Consumer<FacetSource> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_SOURCES);
+            ps.setFetchSize(1000);
+            return ps;
+        }, rs -> {
+            consumer.accept(ROW_MAPPER.mapRow(rs, 0));
+        });
+    }
+
+    public Optional<FacetSource> findById(Long productId) {
+        return jdbcTemplate.query(SELECT_SOURCES + " WHERE id = ?", ROW_MAPPER, productId).stream().findFirst();
+    }
+}
@@ -0,0 +1,106 @@
+package com.mwaf.productservice.repository;
+
+import com.mwaf.productservice.dto.ProductListItem;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keyset ("seek") listing over the products table. Each page continues from
+ * the last row of the previous one with a row-value comparison, so the cost
+ * of a page does not grow with how deep the client has scrolled. The WHERE
+ * clause is assembled per request so Postgres sees only the filters actually
+ * in use and can pick the matching composite index.
+ */
+@Repository
+public class ProductListingRepository {
+
+    private static final String SELECT_COLUMNS =
+            "SELECT id, name, image_url, thumbnail_url, price, stock_quantity, average_rating, category_id FROM products";
+
+    private static final RowMapper<ProductListItem> ROW_MAPPER = (rs, rowNum) -> new ProductListItem(
+            rs.getLong("id"),
+            rs.getString("name"),
+            rs.getString("image_url"),
+            rs.getString("thumbnail_url"),
+            rs.getBigDecimal("price"),
+            rs.getInt("stock_quantity"),
+            rs.getBigDecimal("average_rating"),
+            rs.getObject("category_id", Long.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductListingRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Products ordered by id, starting after {@code afterId} (exclusive).
+     */
+    public List<ProductListItem> findPageById(Long afterId, Long categoryId, Integer minStock, Integer maxStock, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS).append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (afterId != null) {
+            sql.append(" AND id > ?");
+            args.add(afterId);
+        }
+        appendFilters(sql, args, categoryId, minStock, maxStock);
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    /**
+     * Products ordered by (price, id), starting after the given position (exclusive).
+     */
+    public List<ProductListItem> findPageByPrice(BigDecimal afterPrice, Long afterId, Long categoryId,
+                                                 Integer minStock, Integer maxStock, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS).append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (afterPrice != null && afterId != null) {
+            sql.append(" AND (price, id) > (?, ?)");
+            args.add(afterPrice);
+            args.add(afterId);
+        }
+        appendFilters(sql, args, categoryId, minStock, maxStock);
+        sql.append(" ORDER BY price, id LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    /**
+     * List-view rows for the given ids, in no particular order.
+     */
+    public List<ProductListItem> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Long[] idArray = ids.toArray(Long[]::new);
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_COLUMNS + " WHERE id = ANY(?)");
+            ps.setArray(1, connection.createArrayOf("bigint", idArray));
+            return ps;
+        }, ROW_MAPPER);
+    }
+
+    private void appendFilters(StringBuilder sql, List<Object> args, Long categoryId, Integer minStock, Integer maxStock) {
+        if (categoryId != null) {
+            sql.append(" AND category_id = ?");
+            args.add(categoryId);
+        }
+        if (minStock != null) {
+            sql.append(" AND stock_quantity >= ?");
+            args.add(minStock);
+        }
+        if (maxStock != null) {
+            sql.append(" AND stock_quantity <= ?");
+            args.add(maxStock);
+        }
+    }
+}
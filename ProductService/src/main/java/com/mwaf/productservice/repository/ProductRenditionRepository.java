@@ -0,0 +1,26 @@
+package com.mwaf.productservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class ProductRenditionRepository {
+
+    // Guarded on image_url so renditions of a since-replaced image are discarded
+    private static final String SET_RENDITIONS_SQL =
+            "UPDATE products SET thumbnail_url = ?, medium_url = ?, modified_date = LOCALTIMESTAMP " +
+            "WHERE id = ? AND image_url = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductRenditionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return false if the product is gone or its image changed meanwhile
+     */
+    public boolean setRenditions(Long productId, String originalUrl, String thumbnailUrl, String mediumUrl) {
+        return jdbcTemplate.update(SET_RENDITIONS_SQL, thumbnailUrl, mediumUrl, productId, originalUrl) == 1;
+    }
+}
@@ -1,9 +1,13 @@
 package com.mwaf.productservice.repository;
 
+import com.mwaf.productservice.dto.ProductInfo;
 import com.mwaf.productservice.model.Category;
 import com.mwaf.productservice.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository 
@@ -15,4 +19,9 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByStockQuantityBetween(int minQuantity, int maxQuantity);
     List<Product> findByStockQuantity(int quantity);
     List<Product> findByStockQuantityLessThan(int quantity);
+
+    // Lean lookup for service-to-service callers: only the columns they need, no category/images
+    @Query("SELECT new com.mwaf.productservice.dto.ProductInfo(p.id, p.name, p.imageUrl, p.price, p.stockQuantity) " +
+           "FROM Product p WHERE p.id IN :ids")
+    List<ProductInfo> findInfoByIdIn(@Param("ids") Collection<Long> ids);
 }
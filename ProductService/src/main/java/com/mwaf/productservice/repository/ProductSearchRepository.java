@@ -0,0 +1,56 @@
+package com.mwaf.productservice.repository;
+
+import com.mwaf.productservice.dto.SearchDocument;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Reads the text columns the search index is built from.
+ */
+@Repository
+public class ProductSearchRepository {
+
+    private static final String SELECT_DOCUMENTS =
+            "SELECT p.id, p.name, p.description, c.name AS category_name " +
+            "FROM products p LEFT JOIN categories c ON c.id = p.category_id";
+
+    private static final RowMapper<SearchDocument> ROW_MAPPER = (rs, rowNum) -> new SearchDocument(
+            rs.getLong("id"),
+            rs.getString("name"),
+            rs.getString("description"),
+            rs.getString("category_name"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Streams every product to {@code consumer} without materialising the whole table.
+     * The transaction is what lets the Postgres driver honour the fetch size;
+     * with auto-commit on it buffers the full result set.
+     */
+    @Transactional(readOnly = true)
+    public void forEachDocument(Consumer<SearchDocument> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_DOCUMENTS);
+            ps.setFetchSize(1000);
+            return ps;
+        }, rs -> {
+            consumer.accept(ROW_MAPPER.mapRow(rs, 0));
+        });
+    }
+
+    public Optional<SearchDocument> findDocument(Long productId) {
+        List<SearchDocument> documents = jdbcTemplate.query(SELECT_DOCUMENTS + " WHERE p.id = ?", ROW_MAPPER, productId);
+        return documents.stream().findFirst();
+    }
+}
@@ -0,0 +1,153 @@
+package com.mwaf.productservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Per-product review aggregates (count, rating sum and a 1-5 histogram) kept
+ * in {@code product_review_stats}. Review writes apply a delta to the row in
+ * the same transaction, which also serialises concurrent writes for one
+ * product on that row; {@link #rebuild} recomputes it from the reviews.
+ */
+@Repository
+public class ReviewStatsRepository {
+
+    public record ReviewStats(long count, long ratingSum, long[] histogram) {
+
+        // histogram[0] holds the 1-star count
+        public long countFor(int rating) {
+            return histogram[rating - 1];
+        }
+    }
+
+    private static final String STATS_COLUMNS =
+            "review_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5";
+
+    private static final RowMapper<ReviewStats> ROW_MAPPER = (rs, rowNum) -> new ReviewStats(
+            rs.getLong("review_count"),
+            rs.getLong("rating_sum"),
+            new long[] {
+                    rs.getLong("rating_1"), rs.getLong("rating_2"), rs.getLong("rating_3"),
+                    rs.getLong("rating_4"), rs.getLong("rating_5")
+            });
+
+    private static final String FIND_SQL =
+            "SELECT " + STATS_COLUMNS + " FROM product_review_stats WHERE product_id = ?";
+
+    // Parameters: product id, count delta, sum delta, then one delta per rating 1-5
+    private static final String APPLY_DELTA_SQL =
+            "INSERT INTO product_review_stats (product_id, " + STATS_COLUMNS + ", modified_date) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, LOCALTIMESTAMP) " +
+            "ON CONFLICT (product_id) DO UPDATE SET " +
+            "review_count = product_review_stats.review_count + EXCLUDED.review_count, " +
+            "rating_sum = product_review_stats.rating_sum + EXCLUDED.rating_sum, " +
+            "rating_1 = product_review_stats.rating_1 + EXCLUDED.rating_1, " +
+            "rating_2 = product_review_stats.rating_2 + EXCLUDED.rating_2, " +
+            "rating_3 = product_review_stats.rating_3 + EXCLUDED.rating_3, " +
+            "rating_4 = product_review_stats.rating_4 + EXCLUDED.rating_4, " +
+            "rating_5 = product_review_stats.rating_5 + EXCLUDED.rating_5, " +
+            "modified_date = LOCALTIMESTAMP " +
+            "RETURNING " + STATS_COLUMNS;
+
+    private static final String ENSURE_ROW_SQL =
+            "INSERT INTO product_review_stats (product_id, " + STATS_COLUMNS + ", modified_date) " +
+            "VALUES (?, 0, 0, 0, 0, 0, 0, 0, LOCALTIMESTAMP) ON CONFLICT (product_id) DO NOTHING";
+
+    private static final String LOCK_ROW_SQL =
+            "SELECT product_id FROM product_review_stats WHERE product_id = ? FOR UPDATE";
+
+    private static final String RECOMPUTE_SQL =
+            "UPDATE product_review_stats s SET " +
+            "review_count = a.review_count, rating_sum = a.rating_sum, " +
+            "rating_1 = a.rating_1, rating_2 = a.rating_2, rating_3 = a.rating_3, " +
+            "rating_4 = a.rating_4, rating_5 = a.rating_5, modified_date = LOCALTIMESTAMP " +
+            "FROM (SELECT COUNT(*) AS review_count, COALESCE(SUM(rating), 0) AS rating_sum, " +
+            "COUNT(*) FILTER (WHERE rating = 1) AS rating_1, COUNT(*) FILTER (WHERE rating = 2) AS rating_2, " +
+            "COUNT(*) FILTER (WHERE rating = 3) AS rating_3, COUNT(*) FILTER (WHERE rating = 4) AS rating_4, " +
+            "COUNT(*) FILTER (WHERE rating = 5) AS rating_5 " +
+            "FROM product_reviews WHERE product_id = ?) a " +
+            "WHERE s.product_id = ? " +
+            "AND (s.review_count, s.rating_sum, s.rating_1, s.rating_2, s.rating_3, s.rating_4, s.rating_5) " +
+            "IS DISTINCT FROM (a.review_count, a.rating_sum, a.rating_1, a.rating_2, a.rating_3, a.rating_4, a.rating_5)";
+
+    // Same rounding as ReviewService uses for the review summary
+    private static final String SYNC_AVERAGE_SQL =
+            "UPDATE products p SET average_rating = a.average, modified_date = LOCALTIMESTAMP " +
+            "FROM (SELECT product_id, CASE WHEN review_count = 0 THEN NULL " +
+            "ELSE ROUND(rating_sum::numeric / review_count, 1) END AS average " +
+            "FROM product_review_stats WHERE product_id = ?) a " +
+            "WHERE p.id = a.product_id AND p.average_rating IS DISTINCT FROM a.average";
+
+    private static final String PRODUCT_IDS_AFTER_SQL =
+            "SELECT id FROM products WHERE id > ? ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReviewStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<ReviewStats> find(Long productId) {
+        return jdbcTemplate.query(FIND_SQL, ROW_MAPPER, productId).stream().findFirst();
+    }
+
+    /**
+     * Moves one review's contribution from {@code oldRating} to
+     * {@code newRating}. Pass null as the old rating for a new review and as
+     * the new rating for a deleted one.
+     *
+     * @return the stats after the change
+     */
+    public ReviewStats applyDelta(Long productId, Integer oldRating, Integer newRating) {
+        long[] histogram = new long[5];
+        long countDelta = 0;
+        long sumDelta = 0;
+        if (oldRating != null) {
+            histogram[oldRating - 1]--;
+            countDelta--;
+            sumDelta -= oldRating;
+        }
+        if (newRating != null) {
+            histogram[newRating - 1]++;
+            countDelta++;
+            sumDelta += newRating;
+        }
+        return jdbcTemplate.queryForObject(APPLY_DELTA_SQL, ROW_MAPPER,
+                productId, countDelta, sumDelta,
+                histogram[0], histogram[1], histogram[2], histogram[3], histogram[4]);
+    }
+
+    /**
+     * Recomputes one product's row from its reviews. Must run in a
+     * transaction: the row lock makes in-flight review writes finish first and
+     * holds off new ones until the corrected row is committed.
+     *
+     * @return true if the stats or the product's average rating had drifted
+     *         and were corrected
+     */
+    public boolean rebuild(Long productId) {
+        jdbcTemplate.update(ENSURE_ROW_SQL, productId);
+        jdbcTemplate.query(LOCK_ROW_SQL, rs -> { }, productId);
+        boolean statsFixed = jdbcTemplate.update(RECOMPUTE_SQL, productId, productId) > 0;
+        boolean averageFixed = syncAverage(productId);
+        return statsFixed || averageFixed;
+    }
+
+    /**
+     * Copies the average from the stats row onto {@code products.average_rating},
+     * touching only that column so concurrent stock changes are left alone.
+     *
+     * @return true if the average changed
+     */
+    public boolean syncAverage(Long productId) {
+        return jdbcTemplate.update(SYNC_AVERAGE_SQL, productId) > 0;
+    }
+
+    public List<Long> findProductIdsAfter(long afterId, int limit) {
+        return jdbcTemplate.queryForList(PRODUCT_IDS_AFTER_SQL, Long.class, afterId, limit);
+    }
+}
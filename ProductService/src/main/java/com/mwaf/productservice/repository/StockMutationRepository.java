@@ -0,0 +1,140 @@
+package com.mwaf.productservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Stock mutations done inside Postgres rather than as a read-check-save
+ * sequence through JPA: either a single conditional UPDATE, or for order
+ * batches a row lock followed by one bulk UPDATE. Restocks and admin edits
+ * go through here too, since Product maps the stock columns read-only.
+ */
+@Repository
+public class StockMutationRepository {
+
+    // Stock after a change, and the row's stock_version after it
+    public record StockChange(int quantity, long version) {
+    }
+
+    private static final RowMapper<StockChange> STOCK_CHANGE_MAPPER =
+            (rs, rowNum) -> new StockChange(rs.getInt(1), rs.getLong(2));
+
+    private static final String DECREMENT_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ?, stock_version = stock_version + 1, " +
+            "modified_date = LOCALTIMESTAMP " +
+            "WHERE id = ? AND stock_quantity >= ? " +
+            "RETURNING stock_quantity, stock_version";
+
+    private static final String RESTOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity + ?, stock_version = stock_version + 1, " +
+            "modified_date = LOCALTIMESTAMP " +
+            "WHERE id = ? " +
+            "RETURNING stock_quantity, stock_version";
+
+    private static final String SET_STOCK_SQL =
+            "UPDATE products SET stock_quantity = ?, stock_version = stock_version + 1, " +
+            "modified_date = LOCALTIMESTAMP " +
+            "WHERE id = ? " +
+            "RETURNING stock_quantity, stock_version";
+
+    // Rows are locked in id order so two batches touching the same products
+    // cannot deadlock each other.
+    private static final String LOCK_STOCK_SQL =
+            "SELECT id, stock_quantity FROM products WHERE id = ANY(?::bigint[]) ORDER BY id FOR UPDATE";
+
+    private static final String APPLY_DECREMENTS_SQL =
+            "UPDATE products p SET stock_quantity = p.stock_quantity - l.quantity, " +
+            "stock_version = p.stock_version + 1, modified_date = LOCALTIMESTAMP " +
+            "FROM unnest(?::bigint[], ?::int[]) AS l(product_id, quantity) " +
+            "WHERE p.id = l.product_id " +
+            "RETURNING p.id, p.stock_quantity, p.stock_version";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockMutationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Decrements one product's stock if at least {@code quantity} units are left.
+     *
+     * @return the remaining stock, or empty when the product is missing or short
+     */
+    public Optional<StockChange> decrement(Long productId, int quantity) {
+        List<StockChange> remaining = jdbcTemplate.query(DECREMENT_SQL, STOCK_CHANGE_MAPPER,
+                quantity, productId, quantity);
+        return remaining.stream().findFirst();
+    }
+
+    /**
+     * Adds {@code quantity} units on top of whatever stock the row holds now.
+     *
+     * @return the new stock, or empty when the product is missing
+     */
+    public Optional<StockChange> restock(Long productId, int quantity) {
+        return jdbcTemplate.query(RESTOCK_SQL, STOCK_CHANGE_MAPPER, quantity, productId).stream().findFirst();
+    }
+
+    /**
+     * Overwrites the stock with an absolute value, as entered by an admin.
+     *
+     * @return the new stock, or empty when the product is missing
+     */
+    public Optional<StockChange> setStock(Long productId, int quantity) {
+        return jdbcTemplate.query(SET_STOCK_SQL, STOCK_CHANGE_MAPPER, quantity, productId).stream().findFirst();
+    }
+
+    /**
+     * Locks the given products until the end of the current transaction.
+     *
+     * @return current stock keyed by product id; missing products are absent
+     */
+    public Map<Long, Integer> lockStock(Collection<Long> productIds) {
+        Long[] ids = productIds.toArray(Long[]::new);
+        Map<Long, Integer> stock = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(LOCK_STOCK_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", ids));
+            return ps;
+        }, rs -> {
+            stock.put(rs.getLong(1), rs.getInt(2));
+        });
+        return stock;
+    }
+
+    /**
+     * Subtracts every quantity in one statement. Callers must have checked the
+     * quantities against rows locked with {@link #lockStock}.
+     *
+     * @return remaining stock keyed by product id
+     */
+    public Map<Long, StockChange> applyDecrements(Map<Long, Integer> quantities) {
+        Long[] productIds = new Long[quantities.size()];
+        Integer[] amounts = new Integer[quantities.size()];
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            productIds[i] = entry.getKey();
+            amounts[i] = entry.getValue();
+            i++;
+        }
+
+        Map<Long, StockChange> remaining = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(APPLY_DECREMENTS_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", productIds));
+            ps.setArray(2, connection.createArrayOf("integer", amounts));
+            return ps;
+        }, rs -> {
+            remaining.put(rs.getLong(1), new StockChange(rs.getInt(2), rs.getLong(3)));
+        });
+        return remaining;
+    }
+}
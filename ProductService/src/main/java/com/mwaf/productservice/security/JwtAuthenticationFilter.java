@@ -1,6 +1,8 @@
 package com.mwaf.productservice.security;
 
+import com.mwaf.productservice.util.IdentityAssertion;
 import com.mwaf.productservice.util.JwtUtil;
+import com.mwaf.productservice.util.TokenClaims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,6 +16,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Component
@@ -22,6 +25,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private IdentityAssertion identityAssertion;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -32,6 +38,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        // Requests routed through the gateway carry a signed identity, so the
+        // JWT only has to be verified here for direct calls
+        Optional<TokenClaims> forwarded = identityAssertion.verify(request);
+        if (forwarded.isPresent()) {
+            authenticate(forwarded.get());
+            filterChain.doFilter(request, response);
+            return;
+        }
+
         // Get the Authorization header
         String authHeader = request.getHeader("Authorization");
 
@@ -46,20 +61,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             // Extract user information from token
-            String userId = jwtUtil.getUserId(token);
-            List<String> roles = jwtUtil.getRoles(token);
-
-            // Convert roles to Spring Security authorities
-            List<SimpleGrantedAuthority> authorities = roles.stream()
-                    .map(SimpleGrantedAuthority::new)
-                    .collect(Collectors.toList());
-
-            // Create authentication token
-            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userId, null,
-                    authorities);
-
-            // Set the authentication in the SecurityContext
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+            TokenClaims claims = jwtUtil.verify(token)
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid or expired token"));
+            authenticate(claims);
 
         } catch (Exception e) {
             System.err.println("JWT Authentication failed in ProductService: " + e.getMessage());
@@ -71,4 +75,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Continue with the filter chain
         filterChain.doFilter(request, response);
     }
+
+    private void authenticate(TokenClaims claims) {
+        // Convert roles to Spring Security authorities
+        List<SimpleGrantedAuthority> authorities = claims.roles().stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(claims.userId(),
+                null, authorities);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
 }
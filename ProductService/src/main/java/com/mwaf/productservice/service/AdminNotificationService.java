@@ -4,94 +4,60 @@ import com.mwaf.productservice.model.AdminNotification;
 import com.mwaf.productservice.model.Product;
 import com.mwaf.productservice.repository.AdminNotificationRepository;
 import com.mwaf.productservice.repository.ProductRepository;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class AdminNotificationService {
 
-    private static final Logger logger = LoggerFactory.getLogger(AdminNotificationService.class);
-
     private final AdminNotificationRepository notificationRepository;
     private final ProductRepository productRepository;
     
-    @Value("${product.lowstock.threshold:5}")
-    private int lowStockThreshold;
-
     public AdminNotificationService(AdminNotificationRepository notificationRepository, ProductRepository productRepository) {
         this.notificationRepository = notificationRepository;
         this.productRepository = productRepository;
     }
 
+    /**
+     * Persists a batch of alerts raised by {@link LowStockDetector} in one
+     * transaction; the inserts go out as JDBC batches. Alerts for products
+     * deleted in the meantime are dropped.
+     *
+     * @return number of notifications saved
+     */
     @Transactional
-    public void checkLowStockAndNotify(Product product) {
-        logger.info("Checking low stock for product: {} (ID: {}) with quantity: {}", 
-                   product.getName(), product.getId(), product.getStockQuantity());
-        
-        if (product.getStockQuantity() < lowStockThreshold) {
-            logger.info("Product {} has low stock ({} < {}), checking for existing notifications", 
-                       product.getName(), product.getStockQuantity(), lowStockThreshold);
-            
-            // Check if there's already an unread notification for this product in the last 24h
-            LocalDateTime twentyFourHoursAgo = LocalDateTime.now().minusHours(24);
-            Long existingNotifications = notificationRepository.countUnreadLowStockNotificationsSince(product, twentyFourHoursAgo);
-            
-            logger.info("Found {} existing notifications for product {} in the last 24 hours", 
-                       existingNotifications, product.getName());
-            
-            if (existingNotifications == 0) {
-                logger.info("Creating new notification for product: {}", product.getName());
-                
-                // Create new notification
-                AdminNotification notification = new AdminNotification();
-                notification.setType(AdminNotification.NotificationType.LOW_STOCK);
-                notification.setProduct(product);
-                notification.setCurrentStock(product.getStockQuantity());
-                notification.setLevel(AdminNotification.NotificationLevel.WARN);
-                notification.setMessage(String.format("Product '%s' (ID: %d) has low stock: %d units remaining", 
-                        product.getName(), product.getId(), product.getStockQuantity()));
-                notification.setRead(false);
-                
-                AdminNotification savedNotification = notificationRepository.save(notification);
-                logger.info("Successfully created notification with ID: {}", savedNotification.getId());
-            } else {
-                logger.info("Skipping notification creation - existing notification found for product: {}", product.getName());
-            }
-        } else {
-            logger.info("Product {} has sufficient stock ({} >= {}), no notification needed", 
-                       product.getName(), product.getStockQuantity(), lowStockThreshold);
-        }
-    }
+    public int saveLowStockAlerts(List<LowStockDetector.Alert> alerts) {
+        Map<Long, Product> products = productRepository.findAllById(
+                        alerts.stream().map(LowStockDetector.Alert::productId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
 
-    @Transactional
-    public void checkLowStockForAllProducts() {
-        logger.info("Starting low stock check for all products with threshold: {}", lowStockThreshold);
-        
-        // Get all products with stock less than threshold
-        List<Product> lowStockProducts = productRepository.findByStockQuantityLessThan(lowStockThreshold);
-        
-        logger.info("Found {} products with low stock", lowStockProducts.size());
-        
-        int notificationsCreated = 0;
-        for (Product product : lowStockProducts) {
-            try {
-                checkLowStockAndNotify(product);
-                notificationsCreated++;
-            } catch (Exception e) {
-                logger.error("Error checking low stock for product {} (ID: {}): {}", 
-                           product.getName(), product.getId(), e.getMessage());
+        List<AdminNotification> notifications = new ArrayList<>(alerts.size());
+        for (LowStockDetector.Alert alert : alerts) {
+            Product product = products.get(alert.productId());
+            if (product == null) {
+                continue;
             }
+            AdminNotification notification = new AdminNotification();
+            notification.setType(AdminNotification.NotificationType.LOW_STOCK);
+            notification.setProduct(product);
+            notification.setCurrentStock(alert.stockQuantity());
+            notification.setLevel(AdminNotification.NotificationLevel.WARN);
+            notification.setMessage(String.format("Product '%s' (ID: %d) has low stock: %d units remaining (threshold %d)",
+                    product.getName(), product.getId(), alert.stockQuantity(), alert.threshold()));
+            notification.setRead(false);
+            notifications.add(notification);
         }
-        
-        logger.info("Low stock check completed. Created {} new notifications", notificationsCreated);
+        notificationRepository.saveAll(notifications);
+        return notifications.size();
     }
 
     public Page<AdminNotification> getNotifications(Boolean read, Pageable pageable) {
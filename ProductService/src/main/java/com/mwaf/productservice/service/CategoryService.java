@@ -13,10 +13,12 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
+    private final LowStockDetector lowStockDetector;
 
-    public CategoryService(CategoryRepository categoryRepository, ProductRepository productRepository) {
+    public CategoryService(CategoryRepository categoryRepository, ProductRepository productRepository, LowStockDetector lowStockDetector) {
         this.categoryRepository = categoryRepository;
         this.productRepository = productRepository;
+        this.lowStockDetector = lowStockDetector;
     }
 
     public List<Category> getAllCategories() {
@@ -36,7 +38,9 @@ public class CategoryService {
         if (categoryRepository.existsBySlug(category.getSlug())) {
             throw new RuntimeException("Category with slug '" + category.getSlug() + "' already exists");
         }
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        lowStockDetector.categoryThresholdChanged(saved.getId(), saved.getLowStockThreshold());
+        return saved;
     }
 
     @Transactional
@@ -57,8 +61,11 @@ public class CategoryService {
         
         existingCategory.setName(categoryDetails.getName());
         existingCategory.setSlug(categoryDetails.getSlug());
+        existingCategory.setLowStockThreshold(categoryDetails.getLowStockThreshold());
         
-        return categoryRepository.save(existingCategory);
+        Category saved = categoryRepository.save(existingCategory);
+        lowStockDetector.categoryThresholdChanged(saved.getId(), saved.getLowStockThreshold());
+        return saved;
     }
 
     @Transactional
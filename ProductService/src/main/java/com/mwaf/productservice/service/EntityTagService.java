@@ -0,0 +1,52 @@
+package com.mwaf.productservice.service;
+
+import com.mwaf.productservice.repository.EntityVersionRepository;
+import org.springframework.stereotype.Service;
+
+/**
+ * Builds the ETags that read endpoints hand to
+ * {@link org.springframework.web.context.request.WebRequest#checkNotModified(String)}.
+ * Each tag is one indexed lookup, so a matching If-None-Match is answered with
+ * 304 before the entity is loaded or serialized. A null tag means the resource
+ * does not exist and the endpoint should take its normal (404) path.
+ */
+@Service
+public class EntityTagService {
+
+    private final EntityVersionRepository versionRepository;
+
+    public EntityTagService(EntityVersionRepository versionRepository) {
+        this.versionRepository = versionRepository;
+    }
+
+    public String product(Long productId) {
+        return versionRepository.productVersion(productId)
+                .map(version -> tag("product-" + productId, version))
+                .orElse(null);
+    }
+
+    // The info view only shows product columns, but sharing the product version keeps it simple
+    public String productInfo(Long productId) {
+        return versionRepository.productVersion(productId)
+                .map(version -> tag("product-info-" + productId, version))
+                .orElse(null);
+    }
+
+    public String category(Long categoryId) {
+        return versionRepository.categoryVersion(categoryId)
+                .map(version -> tag("category-" + categoryId, version))
+                .orElse(null);
+    }
+
+    public String categories() {
+        return tag("categories", versionRepository.categoriesVersion());
+    }
+
+    public String reviewSummary(Long productId) {
+        return tag("review-summary-" + productId, versionRepository.reviewsVersion(productId));
+    }
+
+    private static String tag(String resource, String version) {
+        return "\"" + resource + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,199 @@
+package com.mwaf.productservice.service;
+
+import com.mwaf.productservice.event.ProductChangedEvent;
+import com.mwaf.productservice.repository.ProductRenditionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates downscaled copies of a product image in the background so list
+ * pages can load a thumbnail instead of the uploaded original. Work runs on a
+ * small bounded pool once the upload's transaction has committed; when the
+ * queue is full the job is dropped and the product simply keeps serving the
+ * original until its image is uploaded again.
+ *
+ * Renditions are written next to the original as {@code <key>.thumb.jpg} and
+ * {@code <key>.medium.jpg}. ImageIO ships no WebP encoder, so they are JPEG.
+ */
+@Service
+public class ImageRenditionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageRenditionService.class);
+
+    private static final String CONTENT_TYPE = "image/jpeg";
+
+    private final ProductImageService imageService;
+    private final ProductRenditionRepository renditionRepository;
+    private final ProductEventPublisher eventPublisher;
+    private final ThreadPoolExecutor executor;
+    private final int thumbnailSize;
+    private final int mediumSize;
+    private final float quality;
+
+    public ImageRenditionService(ProductImageService imageService,
+                                 ProductRenditionRepository renditionRepository,
+                                 ProductEventPublisher eventPublisher,
+                                 @Value("${image.renditions.workers:2}") int workers,
+                                 @Value("${image.renditions.queue-capacity:100}") int queueCapacity,
+                                 @Value("${image.renditions.thumbnail-size:240}") int thumbnailSize,
+                                 @Value("${image.renditions.medium-size:800}") int mediumSize,
+                                 @Value("${image.renditions.jpeg-quality:0.85}") float quality) {
+        this.imageService = imageService;
+        this.renditionRepository = renditionRepository;
+        this.eventPublisher = eventPublisher;
+        this.thumbnailSize = thumbnailSize;
+        this.mediumSize = mediumSize;
+        this.quality = quality;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-rendition-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> logger.warn("Image rendition queue full, skipping job"));
+    }
+
+    /**
+     * Queues rendition work for a freshly uploaded original. Inside a
+     * transaction the job is only queued after commit, so it never sees a
+     * product row that was rolled back.
+     */
+    public void scheduleRenditions(Long productId, String originalKey, String originalUrl) {
+        Runnable submit = () -> executor.execute(() -> generate(productId, originalKey, originalUrl));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit.run();
+                }
+            });
+        } else {
+            submit.run();
+        }
+    }
+
+    private void generate(Long productId, String originalKey, String originalUrl) {
+        try {
+            BufferedImage medium;
+            try (InputStream in = imageService.download(originalKey)) {
+                medium = decode(in, mediumSize);
+            }
+            if (medium == null) {
+                logger.warn("No image reader for {}, skipping renditions", originalKey);
+                return;
+            }
+            // The thumbnail is cut from the medium rendition rather than decoding the original twice
+            BufferedImage thumbnail = scale(medium, thumbnailSize);
+
+            String mediumUrl = imageService.uploadBytes(originalKey + ".medium.jpg", encode(medium), CONTENT_TYPE);
+            String thumbnailUrl = imageService.uploadBytes(originalKey + ".thumb.jpg", encode(thumbnail), CONTENT_TYPE);
+
+            if (renditionRepository.setRenditions(productId, originalUrl, thumbnailUrl, mediumUrl)) {
+                eventPublisher.publishProductChanged(productId, ProductChangedEvent.ChangeType.UPDATED);
+            } else {
+                logger.info("Product {} image changed before renditions of {} were ready", productId, originalKey);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to generate renditions for product {} ({}): {}", productId, originalKey, e.getMessage());
+        }
+    }
+
+    /**
+     * Decodes the image with source subsampling so a large original is never
+     * fully materialised, then scales it to fit within {@code maxSize}.
+     */
+    private BufferedImage decode(InputStream in, int maxSize) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            if (stream == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                // Keep at least twice the target resolution for the final smooth scale
+                int step = Math.max(1, longestSide / (maxSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return scale(reader.read(0, param), maxSize);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Also flattens transparency onto white, since JPEG has no alpha channel
+    private BufferedImage scale(BufferedImage source, int maxSize) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, targetWidth, targetHeight);
+            g.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,219 @@
+package com.mwaf.productservice.service;
+
+import com.mwaf.productservice.event.ProductChangedEvent;
+import com.mwaf.productservice.event.StockLevelChangedEvent;
+import com.mwaf.productservice.model.Product;
+import com.mwaf.productservice.repository.LowStockRepository;
+import com.mwaf.productservice.repository.LowStockRepository.StockLevel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.UnaryOperator;
+
+/**
+ * Raises a low-stock alert only when a product's stock crosses from at or
+ * above its threshold to below it. The last known stock of every product is
+ * kept in memory (loaded once at startup), so a stock change is checked
+ * without touching the database and a product that stays low does not alert
+ * again until it has been restocked.
+ *
+ * A product's threshold is its own {@code low_stock_threshold}, else its
+ * category's, else {@code product.lowstock.threshold}. Changing a threshold
+ * never raises an alert by itself.
+ *
+ * Stock levels are versioned by {@code products.stock_version}. Stock events
+ * are published after commit from whichever thread committed, so they can
+ * arrive out of order; one older than the level already held is ignored.
+ *
+ * Alerts are queued and written to {@code admin_notifications} in batches.
+ */
+@Component
+public class LowStockDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(LowStockDetector.class);
+
+    public record Alert(Long productId, int stockQuantity, int threshold) {
+    }
+
+    private record Tracked(Long categoryId, Integer productThreshold, int stockQuantity, long stockVersion) {
+    }
+
+    private final LowStockRepository lowStockRepository;
+    private final AdminNotificationService notificationService;
+    private final int defaultThreshold;
+    private final int batchSize;
+
+    private final Map<Long, Tracked> products = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> categoryThresholds = new ConcurrentHashMap<>();
+    private final Queue<Alert> pending = new ConcurrentLinkedQueue<>();
+
+    public LowStockDetector(LowStockRepository lowStockRepository,
+                            AdminNotificationService notificationService,
+                            @Value("${product.lowstock.threshold:5}") int defaultThreshold,
+                            @Value("${product.lowstock.batch-size:100}") int batchSize) {
+        this.lowStockRepository = lowStockRepository;
+        this.notificationService = notificationService;
+        this.defaultThreshold = defaultThreshold;
+        this.batchSize = batchSize;
+    }
+
+    // Runs before listeners and the web server start, so no stock change can be missed
+    @PostConstruct
+    public void load() {
+        long start = System.currentTimeMillis();
+        categoryThresholds.putAll(lowStockRepository.findCategoryThresholds());
+        lowStockRepository.forEachStockLevel(level -> products.merge(level.productId(), tracked(level),
+                (current, loaded) -> loaded.stockVersion() >= current.stockVersion() ? loaded : current));
+        logger.info("Loaded stock levels for {} products in {} ms", products.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Re-checks a created or edited product once its transaction commits,
+     * picking up a new category, threshold or stock quantity.
+     */
+    public void productSaved(Product product) {
+        Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        Tracked saved = new Tracked(categoryId, product.getLowStockThreshold(), product.getStockQuantity(),
+                product.getStockVersion());
+        Long productId = product.getId();
+        afterCommit(() -> update(productId, current -> current == null || saved.stockVersion() >= current.stockVersion()
+                ? saved
+                // Stock was decremented after this save; keep that level but take the new category and threshold
+                : new Tracked(saved.categoryId(), saved.productThreshold(), current.stockQuantity(), current.stockVersion())));
+    }
+
+    public void categoryThresholdChanged(Long categoryId, Integer threshold) {
+        afterCommit(() -> {
+            if (threshold != null) {
+                categoryThresholds.put(categoryId, threshold);
+            } else {
+                categoryThresholds.remove(categoryId);
+            }
+        });
+    }
+
+    @EventListener
+    public void onStockLevelChanged(StockLevelChangedEvent event) {
+        update(event.getProductId(), current -> {
+            if (current == null) {
+                return new Tracked(null, null, event.getStockQuantity(), event.getStockVersion());
+            }
+            if (event.getStockVersion() <= current.stockVersion()) {
+                return current;
+            }
+            return new Tracked(current.categoryId(), current.productThreshold(),
+                    event.getStockQuantity(), event.getStockVersion());
+        });
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getChangeType() == ProductChangedEvent.ChangeType.DELETED) {
+            products.remove(event.getProductId());
+        }
+    }
+
+    /**
+     * Reloads the in-memory state from the database and queues an alert for
+     * every low product that has no unread alert, e.g. after thresholds were
+     * edited directly in SQL.
+     *
+     * @return number of alerts queued
+     */
+    public int rescan() {
+        categoryThresholds.clear();
+        load();
+        List<StockLevel> low = lowStockRepository.findLowWithoutUnreadAlert(defaultThreshold);
+        for (StockLevel level : low) {
+            pending.add(new Alert(level.productId(), level.stockQuantity(), thresholdOf(tracked(level))));
+        }
+        flush();
+        return low.size();
+    }
+
+    @Scheduled(fixedDelayString = "${product.lowstock.flush-interval-ms:2000}")
+    public void flush() {
+        List<Alert> batch = new ArrayList<>(batchSize);
+        Alert alert;
+        while ((alert = pending.poll()) != null) {
+            batch.add(alert);
+            if (batch.size() == batchSize) {
+                save(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            save(batch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void update(Long productId, UnaryOperator<Tracked> change) {
+        Tracked[] previous = new Tracked[1];
+        Tracked updated = products.compute(productId, (id, current) -> {
+            previous[0] = current;
+            return change.apply(current);
+        });
+        // A product not seen before counts as previously in stock
+        boolean wasLow = previous[0] != null && previous[0].stockQuantity() < thresholdOf(previous[0]);
+        int threshold = thresholdOf(updated);
+        if (!wasLow && updated.stockQuantity() < threshold) {
+            pending.add(new Alert(productId, updated.stockQuantity(), threshold));
+        }
+    }
+
+    private void save(List<Alert> batch) {
+        try {
+            int saved = notificationService.saveLowStockAlerts(batch);
+            logger.info("Saved {} low stock notifications", saved);
+        } catch (Exception e) {
+            // The products are still tracked as low, so a rescan can recreate these
+            logger.error("Failed to save {} low stock notifications: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private int thresholdOf(Tracked tracked) {
+        if (tracked.productThreshold() != null) {
+            return tracked.productThreshold();
+        }
+        if (tracked.categoryId() != null) {
+            return categoryThresholds.getOrDefault(tracked.categoryId(), defaultThreshold);
+        }
+        return defaultThreshold;
+    }
+
+    private static Tracked tracked(StockLevel level) {
+        return new Tracked(level.categoryId(), level.productThreshold(), level.stockQuantity(), level.stockVersion());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
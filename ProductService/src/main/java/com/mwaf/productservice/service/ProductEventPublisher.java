@@ -0,0 +1,82 @@
+package com.mwaf.productservice.service;
+
+import com.mwaf.productservice.config.RabbitMQConfig;
+import com.mwaf.productservice.event.ProductChangedEvent;
+import com.mwaf.productservice.event.StockLevelChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Publishes product change notifications so other services can invalidate
+ * their local copies of product data. Events raised inside a transaction are
+ * only sent once it commits, so consumers never re-read the old row.
+ *
+ * The same event is also published in-process for components of this service
+ * that keep derived in-memory state, such as the search index.
+ */
+@Component
+public class ProductEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductEventPublisher.class);
+
+    private final AmqpTemplate amqpTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public ProductEventPublisher(AmqpTemplate amqpTemplate, ApplicationEventPublisher applicationEventPublisher) {
+        this.amqpTemplate = amqpTemplate;
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    public void publishProductChanged(Long productId, ProductChangedEvent.ChangeType changeType) {
+        ProductChangedEvent event = new ProductChangedEvent(productId, changeType);
+        afterCommit(() -> send(event));
+    }
+
+    /**
+     * Announces a new stock level to in-process listeners only.
+     * {@code stockVersion} must be the value the UPDATE that wrote the level
+     * returned, never one computed from an earlier read.
+     */
+    public void publishStockChanged(Long productId, int stockQuantity, long stockVersion) {
+        StockLevelChangedEvent event = new StockLevelChangedEvent(productId, stockQuantity, stockVersion);
+        afterCommit(() -> {
+            try {
+                applicationEventPublisher.publishEvent(event);
+            } catch (Exception e) {
+                logger.warn("Local StockLevelChangedEvent handler failed for product {}: {}", productId, e.getMessage());
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void send(ProductChangedEvent event) {
+        try {
+            applicationEventPublisher.publishEvent(event);
+        } catch (Exception e) {
+            logger.warn("Local ProductChangedEvent handler failed for product {}: {}", event.getProductId(), e.getMessage());
+        }
+        try {
+            amqpTemplate.convertAndSend(RabbitMQConfig.PRODUCT_EXCHANGE, RabbitMQConfig.PRODUCT_CHANGED_ROUTING_KEY, event);
+        } catch (Exception e) {
+            // Consumers only cache with a TTL, so a lost event delays freshness but never breaks the write
+            logger.warn("Failed to publish ProductChangedEvent for product {}: {}", event.getProductId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.mwaf.productservice.service;
+
+import com.mwaf.productservice.dto.FacetCountsResponse;
+import com.mwaf.productservice.dto.FacetSource;
+import com.mwaf.productservice.event.ProductChangedEvent;
+import com.mwaf.productservice.event.StockLevelChangedEvent;
+import com.mwaf.productservice.repository.ProductFacetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Catalog facet counts kept in memory. Every product maps to one combination
+ * of (category, price range, rating, stock state); only the number of products
+ * per combination is stored, so a query walks a few hundred counters instead
+ * of the products table. Counters move on each product change or stock update.
+ * Stock updates older than the {@code stock_version} already applied for a
+ * product are ignored, since they can arrive out of commit order.
+ */
+@Service
+public class ProductFacetService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetService.class);
+
+    private static final String NO_CATEGORY = "none";
+    private static final BigDecimal[] PRICE_BOUNDS = {
+            BigDecimal.valueOf(25), BigDecimal.valueOf(50), BigDecimal.valueOf(100),
+            BigDecimal.valueOf(250), BigDecimal.valueOf(500)
+    };
+    private static final List<String> PRICE_RANGES = List.of("0-25", "25-50", "50-100", "100-250", "250-500", "500+");
+    private static final List<String> RATINGS = List.of("unrated", "1-2", "2-3", "3-4", "4-5");
+    private static final List<String> STOCK_STATES = List.of("available", "low", "zero");
+
+    private record FacetKey(String category, String priceRange, String rating, String stock) {
+    }
+
+    private final ProductFacetRepository facetRepository;
+    private final int lowStockThreshold;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, FacetKey> keysByProduct = new HashMap<>();
+    private Map<FacetKey, Long> counts = new HashMap<>();
+    private Map<Long, Long> stockVersions = new HashMap<>();
+
+    private volatile boolean rebuilding;
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    public ProductFacetService(ProductFacetRepository facetRepository,
+                               @Value("${product.lowstock.threshold:5}") int lowStockThreshold) {
+        this.facetRepository = facetRepository;
+        this.lowStockThreshold = lowStockThreshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        changedDuringRebuild.clear();
+
+        Map<Long, FacetKey> freshKeys = new HashMap<>();
+        Map<FacetKey, Long> freshCounts = new HashMap<>();
+        Map<Long, Long> freshVersions = new HashMap<>();
+        facetRepository.forEachSource(source -> {
+            FacetKey key = keyOf(source);
+            freshKeys.put(source.productId(), key);
+            freshCounts.merge(key, 1L, Long::sum);
+            freshVersions.put(source.productId(), source.stockVersion());
+        });
+
+        lock.writeLock().lock();
+        try {
+            keysByProduct = freshKeys;
+            counts = freshCounts;
+            stockVersions = freshVersions;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        rebuilding = false;
+
+        // Products edited while the table was being streamed may have been read before the edit
+        for (Long productId : changedDuringRebuild) {
+            refresh(productId);
+        }
+        changedDuringRebuild.clear();
+        logger.info("Built facet counters for {} products ({} combinations) in {} ms",
+                freshKeys.size(), freshCounts.size(), System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getProductId());
+        }
+        refresh(event.getProductId());
+    }
+
+    @EventListener
+    public void onStockLevelChanged(StockLevelChangedEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getProductId());
+        }
+        lock.writeLock().lock();
+        try {
+            FacetKey current = keysByProduct.get(event.getProductId());
+            if (current == null || isStale(event.getProductId(), event.getStockVersion())) {
+                return;
+            }
+            stockVersions.put(event.getProductId(), event.getStockVersion());
+            String stock = stockStateOf(event.getStockQuantity());
+            if (!stock.equals(current.stock())) {
+                move(event.getProductId(), new FacetKey(current.category(), current.priceRange(), current.rating(), stock));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts products per facet value. All filters are optional and use the
+     * same values that appear as keys in the response.
+     */
+    public FacetCountsResponse getFacetCounts(String category, String priceRange, String rating, String stock) {
+        Map<String, Long> categoryCounts = new TreeMap<>();
+        Map<String, Long> priceCounts = zeroed(PRICE_RANGES);
+        Map<String, Long> ratingCounts = zeroed(RATINGS);
+        Map<String, Long> stockCounts = zeroed(STOCK_STATES);
+        long total = 0;
+
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<FacetKey, Long> entry : counts.entrySet()) {
+                FacetKey key = entry.getKey();
+                long count = entry.getValue();
+                boolean categoryMatches = category == null || category.equals(key.category());
+                boolean priceMatches = priceRange == null || priceRange.equals(key.priceRange());
+                boolean ratingMatches = rating == null || rating.equals(key.rating());
+                boolean stockMatches = stock == null || stock.equals(key.stock());
+
+                if (categoryMatches && priceMatches && ratingMatches && stockMatches) {
+                    total += count;
+                }
+                if (priceMatches && ratingMatches && stockMatches) {
+                    categoryCounts.merge(key.category(), count, Long::sum);
+                }
+                if (categoryMatches && ratingMatches && stockMatches) {
+                    priceCounts.merge(key.priceRange(), count, Long::sum);
+                }
+                if (categoryMatches && priceMatches && stockMatches) {
+                    ratingCounts.merge(key.rating(), count, Long::sum);
+                }
+                if (categoryMatches && priceMatches && ratingMatches) {
+                    stockCounts.merge(key.stock(), count, Long::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new FacetCountsResponse(total, categoryCounts, priceCounts, ratingCounts, stockCounts);
+    }
+
+    private void refresh(Long productId) {
+        FacetSource source = facetRepository.findById(productId).orElse(null);
+        lock.writeLock().lock();
+        try {
+            if (source == null) {
+                stockVersions.remove(productId);
+                move(productId, null);
+                return;
+            }
+            FacetKey key = keyOf(source);
+            FacetKey current = keysByProduct.get(productId);
+            if (current != null && isStale(productId, source.stockVersion())) {
+                // A stock update newer than this read is already applied; keep its stock state
+                key = new FacetKey(key.category(), key.priceRange(), key.rating(), current.stock());
+            } else {
+                stockVersions.put(productId, source.stockVersion());
+            }
+            move(productId, key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller must hold the write lock
+    private boolean isStale(Long productId, long stockVersion) {
+        Long applied = stockVersions.get(productId);
+        return applied != null && stockVersion <= applied;
+    }
+
+    // Caller must hold the write lock. A null key removes the product.
+    private void move(Long productId, FacetKey newKey) {
+        FacetKey oldKey = newKey == null ? keysByProduct.remove(productId) : keysByProduct.put(productId, newKey);
+        if (oldKey != null) {
+            counts.computeIfPresent(oldKey, (key, count) -> count == 1 ? null : count - 1);
+        }
+        if (newKey != null) {
+            counts.merge(newKey, 1L, Long::sum);
+        }
+    }
+
+    private FacetKey keyOf(FacetSource source) {
+        String category = source.categoryId() == null ? NO_CATEGORY : String.valueOf(source.categoryId());
+        return new FacetKey(category, priceRangeOf(source.price()), ratingOf(source.averageRating()),
+                stockStateOf(source.stockQuantity()));
+    }
+
+    private String priceRangeOf(BigDecimal price) {
+        int bucket = 0;
+        while (bucket < PRICE_BOUNDS.length && price != null && price.compareTo(PRICE_BOUNDS[bucket]) >= 0) {
+            bucket++;
+        }
+        return PRICE_RANGES.get(bucket);
+    }
+
+    private String ratingOf(BigDecimal averageRating) {
+        if (averageRating == null) {
+            return "unrated";
+        }
+        // A perfect 5.0 belongs with the 4-5 bucket
+        int floor = Math.max(1, Math.min(averageRating.intValue(), 4));
+        return RATINGS.get(floor);
+    }
+
+    private String stockStateOf(int stockQuantity) {
+        if (stockQuantity <= 0) {
+            return "zero";
+        }
+        return stockQuantity < lowStockThreshold ? "low" : "available";
+    }
+
+    private Map<String, Long> zeroed(List<String> values) {
+        Map<String, Long> map = new LinkedHashMap<>();
+        values.forEach(value -> map.put(value, 0L));
+        return map;
+    }
+}
@@ -1,46 +1,154 @@
 package com.mwaf.productservice.service;
 
-import jakarta.persistence.Entity;
-import lombok.Getter;
-import lombok.RequiredArgsConstructor;
-import lombok.Setter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.UUID;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
-// ProductImageService.java
+/**
+ * Streams product images into MinIO straight from the multipart part (which
+ * Spring has already spooled to disk) instead of reading the whole file onto
+ * the heap. Files up to {@code minio.upload.multipart-threshold-bytes} go up in
+ * one PUT with a known content length; larger ones are sent as an S3 multipart
+ * upload through a single reused part buffer. Either way an upload holds at
+ * most one part buffer, and a semaphore caps how many uploads run at once.
+ */
 @Service
-@RequiredArgsConstructor
-
-@Getter
-@Setter
 public class ProductImageService {
 
     private final S3Client s3;
-    @Value("${minio.bucket}") private String bucket;
+    private final String bucket;
+    private final long multipartThresholdBytes;
+    private final int partSizeBytes;
+    private final long acquireTimeoutMs;
+    private final Semaphore uploadPermits;
+
+    public ProductImageService(S3Client s3,
+                               @Value("${minio.bucket}") String bucket,
+                               @Value("${minio.upload.max-concurrent:8}") int maxConcurrentUploads,
+                               @Value("${minio.upload.acquire-timeout-ms:10000}") long acquireTimeoutMs,
+                               @Value("${minio.upload.multipart-threshold-bytes:16777216}") long multipartThresholdBytes,
+                               @Value("${minio.upload.part-size-bytes:8388608}") int partSizeBytes) {
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.uploadPermits = new Semaphore(maxConcurrentUploads, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.multipartThresholdBytes = multipartThresholdBytes;
+        // S3 rejects parts below 5 MB (except the last one)
+        this.partSizeBytes = Math.max(partSizeBytes, 5 * 1024 * 1024);
+    }
 
     public String upload(MultipartFile file, String key) throws IOException {
+        acquirePermit();
+        try (InputStream in = file.getInputStream()) {
+            if (file.getSize() > multipartThresholdBytes) {
+                uploadInParts(in, key, file.getContentType());
+            } else {
+                s3.putObject(
+                        PutObjectRequest.builder()
+                                .bucket(bucket)
+                                .key(key)
+                                .contentType(file.getContentType())
+                                .contentLength(file.getSize())
+                                .build(),
+                        RequestBody.fromInputStream(in, file.getSize()));
+            }
+        } finally {
+            uploadPermits.release();
+        }
 
+        return urlFor(key);
+    }
+
+    public String urlFor(String key) {
+        return String.format("http://localhost:9000/%s/%s", bucket, key);
+    }
 
+    public InputStream download(String key) {
+        return s3.getObject(GetObjectRequest.builder().bucket(bucket).key(key).build());
+    }
 
-        /* ---------- NEW: buffer once, then pass bytes ---------- */
-        byte[] bytes = file.getBytes();            // ← reads only once
+    // For small generated files such as thumbnails; not subject to the upload cap
+    public String uploadBytes(String key, byte[] bytes, String contentType) {
         s3.putObject(
                 PutObjectRequest.builder()
                         .bucket(bucket)
                         .key(key)
-                        .contentType(file.getContentType())
-                        .contentLength((long) bytes.length) // good practice
+                        .contentType(contentType)
+                        .contentLength((long) bytes.length)
                         .build(),
-                RequestBody.fromBytes(bytes)        // repeatable body
-        );
+                RequestBody.fromBytes(bytes));
+        return urlFor(key);
+    }
+
+    private void uploadInParts(InputStream in, String key, String contentType) throws IOException {
+        String uploadId = s3.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .contentType(contentType)
+                        .build())
+                .uploadId();
+        try {
+            byte[] buffer = new byte[partSizeBytes];
+            List<CompletedPart> parts = new ArrayList<>();
+            int partNumber = 1;
+            int read;
+            while ((read = in.readNBytes(buffer, 0, buffer.length)) > 0) {
+                String eTag = s3.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucket)
+                                .key(key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) read)
+                                .build(),
+                        // Wraps the buffer rather than copying it
+                        RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, read), read))
+                        .eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+                partNumber++;
+            }
+            s3.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+        } catch (IOException | RuntimeException e) {
+            // Otherwise MinIO keeps the uploaded parts around until they expire
+            s3.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+            throw e;
+        }
+    }
 
-        return String.format("http://localhost:9000/%s/%s", bucket, key)    ;
+    private void acquirePermit() {
+        try {
+            if (!uploadPermits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Too many image uploads in progress, please retry shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to upload image", e);
+        }
     }
 }
@@ -0,0 +1,94 @@
+package com.mwaf.productservice.service;
+
+import com.mwaf.productservice.dto.ProductListItem;
+import com.mwaf.productservice.dto.ProductPage;
+import com.mwaf.productservice.repository.ProductListingRepository;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Cursor-paginated product listing for the storefront. The cursor encodes the
+ * sort key of the last row returned, so clients just pass back whatever
+ * {@code nextCursor} they received.
+ */
+@Service
+public class ProductListingService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final ProductListingRepository listingRepository;
+
+    public ProductListingService(ProductListingRepository listingRepository) {
+        this.listingRepository = listingRepository;
+    }
+
+    public ProductPage getProducts(String cursor, int size, String sort, Long categoryId, Integer minStock, Integer maxStock) {
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        String[] position = decodeCursor(cursor);
+
+        List<ProductListItem> items;
+        if (sort == null || sort.equals("id")) {
+            Long afterId = position == null ? null : parseId(position[0]);
+            // Fetch one extra row to know whether another page exists
+            items = listingRepository.findPageById(afterId, categoryId, minStock, maxStock, limit + 1);
+        } else if (sort.equals("price")) {
+            BigDecimal afterPrice = null;
+            Long afterId = null;
+            if (position != null) {
+                if (position.length != 2) {
+                    throw new RuntimeException("Invalid cursor");
+                }
+                afterPrice = parsePrice(position[0]);
+                afterId = parseId(position[1]);
+            }
+            items = listingRepository.findPageByPrice(afterPrice, afterId, categoryId, minStock, maxStock, limit + 1);
+        } else {
+            throw new RuntimeException("Unsupported sort: " + sort + ". Use 'id' or 'price'");
+        }
+
+        if (items.size() <= limit) {
+            return new ProductPage(items, null);
+        }
+        List<ProductListItem> page = items.subList(0, limit);
+        ProductListItem last = page.get(limit - 1);
+        String nextCursor = "price".equals(sort)
+                ? encodeCursor(last.price().toPlainString() + ":" + last.id())
+                : encodeCursor(String.valueOf(last.id()));
+        return new ProductPage(List.copyOf(page), nextCursor);
+    }
+
+    private String encodeCursor(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    private Long parseId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    private BigDecimal parsePrice(String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.mwaf.productservice.service;
+
+import com.mwaf.productservice.dto.SearchDocument;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product name, description and category name,
+ * ranked with BM25. Field importance is expressed by counting a name token
+ * three times and a category token twice, which keeps a single posting list
+ * per term.
+ *
+ * Terms live in a sorted map so the last word of a query can be expanded as a
+ * prefix for typeahead. Reads share a lock; writes are rare (product edits) and
+ * take it exclusively.
+ */
+public class ProductSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // Completions score slightly below an exact hit on the same word
+    private static final double PREFIX_MATCH_FACTOR = 0.8;
+    // Bounds the work a one-letter prefix can cause
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (product id -> weighted term frequency)
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+    private long totalLength;
+
+    private record IndexedDocument(Map<String, Integer> termFrequencies, int length) {
+    }
+
+    public record SearchResult(List<Long> productIds, int totalHits) {
+    }
+
+    /**
+     * Adds the product, replacing any previous version of it.
+     */
+    public void index(SearchDocument document) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        addTokens(termFrequencies, document.name(), NAME_WEIGHT);
+        addTokens(termFrequencies, document.categoryName(), CATEGORY_WEIGHT);
+        addTokens(termFrequencies, document.description(), DESCRIPTION_WEIGHT);
+        int length = termFrequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.productId());
+            documents.put(document.productId(), new IndexedDocument(termFrequencies, length));
+            termFrequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(document.productId(), frequency));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks every product matching at least one query word and returns the
+     * best {@code limit} ids, highest score first. Unless the query ends with
+     * whitespace, its last word is treated as a prefix.
+     */
+    public SearchResult search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return new SearchResult(List.of(), 0);
+        }
+        boolean lastTermIsPrefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return new SearchResult(List.of(), 0);
+            }
+            double averageLength = (double) totalLength / documents.size();
+            Map<Long, Double> scores = new HashMap<>();
+            for (int i = 0; i < terms.size(); i++) {
+                Map<Long, Double> termScores = new HashMap<>();
+                String term = terms.get(i);
+                if (i == terms.size() - 1 && lastTermIsPrefix) {
+                    scorePrefix(term, averageLength, termScores);
+                } else {
+                    scoreTerm(postings.get(term), averageLength, 1.0, termScores);
+                }
+                termScores.forEach((productId, score) -> scores.merge(productId, score, Double::sum));
+            }
+            return new SearchResult(topIds(scores, limit), scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return Arrays.stream(NON_WORD.split(folded.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private void addTokens(Map<String, Integer> termFrequencies, String text, int weight) {
+        for (String token : tokenize(text)) {
+            termFrequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private void removeLocked(Long productId) {
+        IndexedDocument previous = documents.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.termFrequencies().keySet()) {
+            Map<Long, Integer> postingList = postings.get(term);
+            if (postingList != null) {
+                postingList.remove(productId);
+                if (postingList.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= previous.length();
+    }
+
+    private void scorePrefix(String prefix, double averageLength, Map<Long, Double> termScores) {
+        // A product matching several completions of the same prefix counts once, with its best one
+        int expansions = 0;
+        for (Map.Entry<String, Map<Long, Integer>> entry
+                : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet()) {
+            double factor = entry.getKey().equals(prefix) ? 1.0 : PREFIX_MATCH_FACTOR;
+            Map<Long, Double> expansionScores = new HashMap<>();
+            scoreTerm(entry.getValue(), averageLength, factor, expansionScores);
+            expansionScores.forEach((productId, score) -> termScores.merge(productId, score, Math::max));
+            if (++expansions == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+        }
+    }
+
+    private void scoreTerm(Map<Long, Integer> postingList, double averageLength, double factor, Map<Long, Double> termScores) {
+        if (postingList == null) {
+            return;
+        }
+        int documentCount = documents.size();
+        int documentFrequency = postingList.size();
+        double idf = Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        postingList.forEach((productId, frequency) -> {
+            double lengthNorm = 1 - B + B * documents.get(productId).length() / averageLength;
+            double score = idf * frequency * (K1 + 1) / (frequency + K1 * lengthNorm);
+            termScores.put(productId, score * factor);
+        });
+    }
+
+    private List<Long> topIds(Map<Long, Double> scores, int limit) {
+        // Ties are broken by id so paging through equal scores is stable
+        Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(ranking);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (best.size() < limit) {
+                best.add(entry);
+            } else if (ranking.compare(entry, best.peek()) > 0) {
+                best.poll();
+                best.add(entry);
+            }
+        }
+        List<Long> ids = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ids.add(best.poll().getKey());
+        }
+        return ids.reversed();
+    }
+}
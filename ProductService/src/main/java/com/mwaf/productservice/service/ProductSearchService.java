@@ -0,0 +1,102 @@
+package com.mwaf.productservice.service;
+
+import com.mwaf.productservice.dto.ProductListItem;
+import com.mwaf.productservice.dto.ProductSearchResponse;
+import com.mwaf.productservice.event.ProductChangedEvent;
+import com.mwaf.productservice.repository.ProductListingRepository;
+import com.mwaf.productservice.repository.ProductSearchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Owns the product search index: builds it from the products table once the
+ * application is up and keeps it current from {@link ProductChangedEvent}s.
+ * Only ids come out of the index; the rows returned to clients are read fresh
+ * so price and stock are never stale.
+ */
+@Service
+public class ProductSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchService.class);
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final ProductSearchRepository searchRepository;
+    private final ProductListingRepository listingRepository;
+
+    private volatile ProductSearchIndex index = new ProductSearchIndex();
+    private volatile boolean rebuilding;
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    public ProductSearchService(ProductSearchRepository searchRepository, ProductListingRepository listingRepository) {
+        this.searchRepository = searchRepository;
+        this.listingRepository = listingRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        changedDuringRebuild.clear();
+
+        ProductSearchIndex fresh = new ProductSearchIndex();
+        searchRepository.forEachDocument(fresh::index);
+        index = fresh;
+        rebuilding = false;
+
+        // Products edited while the table was being streamed may have been read before the edit
+        for (Long productId : changedDuringRebuild) {
+            refresh(productId);
+        }
+        changedDuringRebuild.clear();
+        logger.info("Indexed {} products for search in {} ms", fresh.size(), System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getProductId());
+        }
+        refresh(event.getProductId());
+    }
+
+    public ProductSearchResponse search(String query, int page, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        int pageNumber = Math.max(page, 0);
+        // long: a large page number would overflow int and turn into a negative offset
+        long offset = (long) pageNumber * pageSize;
+
+        ProductSearchIndex current = index;
+        // A page past the last product can't hold hits; search only for the total then
+        int limit = offset < current.size() ? (int) Math.min(offset + pageSize, current.size()) : 1;
+        ProductSearchIndex.SearchResult result = current.search(query, limit);
+        if (offset >= result.productIds().size()) {
+            return new ProductSearchResponse(List.of(), result.totalHits(), pageNumber, pageSize);
+        }
+        List<Long> pageIds = result.productIds().subList((int) offset, result.productIds().size());
+
+        Map<Long, ProductListItem> rows = listingRepository.findByIds(pageIds).stream()
+                .collect(Collectors.toMap(ProductListItem::id, Function.identity()));
+        List<ProductListItem> items = pageIds.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new ProductSearchResponse(items, result.totalHits(), pageNumber, pageSize);
+    }
+
+    private void refresh(Long productId) {
+        searchRepository.findDocument(productId)
+                .ifPresentOrElse(index::index, () -> index.remove(productId));
+    }
+}
@@ -1,10 +1,17 @@
 package com.mwaf.productservice.service;
 
+import com.mwaf.productservice.dto.ProductInfo;
+import com.mwaf.productservice.dto.OrderBatchResult;
+import com.mwaf.productservice.event.OrderPlacedEvent;
+import com.mwaf.productservice.event.ProductChangedEvent;
 import com.mwaf.productservice.model.Category;
 import com.mwaf.productservice.model.Product;
 import com.mwaf.productservice.model.ProductImage;
 import com.mwaf.productservice.repository.CategoryRepository;
+import com.mwaf.productservice.repository.ProcessedOrderEventRepository;
 import com.mwaf.productservice.repository.ProductRepository;
+import com.mwaf.productservice.repository.StockMutationRepository;
+import com.mwaf.productservice.repository.StockMutationRepository.StockChange;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,8 +20,14 @@ import org.springframework.web.multipart.MultipartFile;
 
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -26,14 +39,22 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final ProductImageService imageService;
     private final CategoryRepository categoryRepository;
-    private final AdminNotificationService notificationService;
+    private final LowStockDetector lowStockDetector;
+    private final StockMutationRepository stockMutationRepository;
+    private final ProductEventPublisher eventPublisher;
+    private final ProcessedOrderEventRepository processedOrderEventRepository;
+    private final ImageRenditionService renditionService;
 
     // Constructor injection for ProductRepository
-    public ProductService(ProductRepository productRepository, ProductImageService imageService, CategoryRepository categoryRepository, AdminNotificationService notificationService) {
+    public ProductService(ProductRepository productRepository, ProductImageService imageService, CategoryRepository categoryRepository, LowStockDetector lowStockDetector, StockMutationRepository stockMutationRepository, ProductEventPublisher eventPublisher, ProcessedOrderEventRepository processedOrderEventRepository, ImageRenditionService renditionService) {
         this.productRepository = productRepository;
         this.imageService = imageService;
         this.categoryRepository = categoryRepository;
-        this.notificationService = notificationService;
+        this.lowStockDetector = lowStockDetector;
+        this.stockMutationRepository = stockMutationRepository;
+        this.eventPublisher = eventPublisher;
+        this.processedOrderEventRepository = processedOrderEventRepository;
+        this.renditionService = renditionService;
     }
 
     @Transactional
@@ -55,11 +76,10 @@ public class ProductService {
         // 2. save entity with URL
         product.setImageUrl(imageUrl);
         Product finalProduct = productRepository.save(product);
+        renditionService.scheduleRenditions(finalProduct.getId(), key, imageUrl);
         
-        // Check for low stock notification
-        logger.info("Calling notification service for product: {} with stock: {}", 
-                   finalProduct.getName(), finalProduct.getStockQuantity());
-        notificationService.checkLowStockAndNotify(finalProduct);
+        lowStockDetector.productSaved(finalProduct);
+        eventPublisher.publishProductChanged(finalProduct.getId(), ProductChangedEvent.ChangeType.CREATED);
         
         return finalProduct;
     }
@@ -100,6 +120,14 @@ public class ProductService {
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
     }
 
+    // Retrieve lean product info for many ids in a single query
+    public List<ProductInfo> getProductInfos(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return productRepository.findInfoByIdIn(ids);
+    }
+
     // Retrieve all products
     public List<Product> getAllProducts() {
         return productRepository.findAll();
@@ -124,15 +152,21 @@ public class ProductService {
     @Transactional
     public void bulkDeleteProducts(List<Long> productIds) {
         productRepository.deleteAllById(productIds);
+        productIds.forEach(id -> eventPublisher.publishProductChanged(id, ProductChangedEvent.ChangeType.DELETED));
     }
 
     // Bulk restock products
     @Transactional
     public void bulkRestockProducts(Map<Long, Integer> restockData) {
         for (Map.Entry<Long, Integer> entry : restockData.entrySet()) {
-            Product product = getProductById(entry.getKey());
-            product.setStockQuantity(product.getStockQuantity() + entry.getValue());
-            productRepository.save(product);
+            // Added in SQL so orders decremented since any earlier read are kept
+            StockChange stock = stockMutationRepository.restock(entry.getKey(), entry.getValue())
+                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + entry.getKey()));
+            // Loaded after the UPDATE, so it carries the new quantity and version
+            Product restocked = getProductById(entry.getKey());
+            lowStockDetector.productSaved(restocked);
+            eventPublisher.publishStockChanged(restocked.getId(), stock.quantity(), stock.version());
+            eventPublisher.publishProductChanged(restocked.getId(), ProductChangedEvent.ChangeType.UPDATED);
         }
     }
 
@@ -156,7 +190,7 @@ public class ProductService {
         existing.setName(incoming.getName());
         existing.setDescription(incoming.getDescription());
         existing.setPrice(incoming.getPrice());
-        existing.setStockQuantity(incoming.getStockQuantity());
+        existing.setLowStockThreshold(incoming.getLowStockThreshold());
         
         // Assign category if provided
         assignCategoryToProduct(existing, categoryId);
@@ -168,13 +202,23 @@ public class ProductService {
 
             String newUrl = imageService.upload(newFile, key);
             existing.setImageUrl(newUrl);
+            // Renditions of the old image must not be served for the new one
+            existing.setThumbnailUrl(null);
+            existing.setMediumUrl(null);
+            renditionService.scheduleRenditions(existing.getId(), key, newUrl);
         }
         Product updatedProduct = productRepository.save(existing);
+        if (incoming.getStockQuantity() != null) {
+            // Product maps stock read-only; the new level is written, and reflected on the entity, from SQL
+            StockChange stock = stockMutationRepository.setStock(id, incoming.getStockQuantity())
+                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+            updatedProduct.setStockQuantity(stock.quantity());
+            updatedProduct.setStockVersion(stock.version());
+            eventPublisher.publishStockChanged(id, stock.quantity(), stock.version());
+        }
         
-        // Check for low stock notification
-        logger.info("Calling notification service for updated product: {} with stock: {}", 
-                   updatedProduct.getName(), updatedProduct.getStockQuantity());
-        notificationService.checkLowStockAndNotify(updatedProduct);
+        lowStockDetector.productSaved(updatedProduct);
+        eventPublisher.publishProductChanged(updatedProduct.getId(), ProductChangedEvent.ChangeType.UPDATED);
         
         return updatedProduct;
     }
@@ -182,30 +226,88 @@ public class ProductService {
     // Delete a product by its ID
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        eventPublisher.publishProductChanged(id, ProductChangedEvent.ChangeType.DELETED);
     }
 
     @Transactional
     public void reduceStock(Long productId, int quantity) {
-        // 1. Retrieve the product
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
+        // Check and decrement in one conditional UPDATE so concurrent orders cannot oversell
+        StockChange remaining = stockMutationRepository.decrement(productId, quantity)
+                .orElseThrow(() -> productRepository.existsById(productId)
+                        ? new RuntimeException("Insufficient stock for product ID: " + productId)
+                        : new RuntimeException("Product not found with id: " + productId));
+
+        afterStockDecrement(productId, remaining);
+    }
+
+    // Apply a batch of orders in one transaction. Orders already in the processed-events
+    // ledger are skipped, so redeliveries are no-ops. Each order is reserved completely or
+    // not at all; all accepted lines are then written with a single bulk UPDATE.
+    @Transactional
+    public OrderBatchResult applyOrders(List<OrderPlacedEvent> events) {
+        Map<Long, OrderPlacedEvent> byOrderId = new LinkedHashMap<>();
+        for (OrderPlacedEvent event : events) {
+            byOrderId.putIfAbsent(event.getOrderId(), event);
+        }
+        Set<Long> claimed = processedOrderEventRepository.claim(byOrderId.keySet());
+        List<OrderPlacedEvent> fresh = byOrderId.values().stream()
+                .filter(event -> claimed.contains(event.getOrderId()))
+                .toList();
+        int duplicates = events.size() - fresh.size();
+        if (fresh.isEmpty()) {
+            return new OrderBatchResult(List.of(), List.of(), duplicates);
+        }
+
+        Map<Long, Map<Long, Integer>> quantitiesByOrder = new LinkedHashMap<>();
+        Set<Long> productIds = new HashSet<>();
+        for (OrderPlacedEvent event : fresh) {
+            // Merge duplicate product lines so each product row is checked once per order
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            if (event.getItems() != null) {
+                for (OrderPlacedEvent.OrderItemDto item : event.getItems()) {
+                    quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+                }
+            }
+            quantitiesByOrder.put(event.getOrderId(), quantities);
+            productIds.addAll(quantities.keySet());
+        }
 
-        // 2. Check if there's enough stock
-        if (product.getStockQuantity() < quantity) {
-            throw new RuntimeException("Insufficient stock for product ID: " + productId);
+        Map<Long, Integer> available = stockMutationRepository.lockStock(productIds);
+        Map<Long, Integer> decrements = new HashMap<>();
+        List<Long> applied = new ArrayList<>();
+        List<OrderPlacedEvent> rejected = new ArrayList<>();
+        for (OrderPlacedEvent event : fresh) {
+            Map<Long, Integer> quantities = quantitiesByOrder.get(event.getOrderId());
+            boolean fits = quantities.entrySet().stream().allMatch(line ->
+                    line.getValue() > 0 && available.getOrDefault(line.getKey(), 0) >= line.getValue());
+            if (fits) {
+                quantities.forEach((productId, quantity) -> {
+                    available.merge(productId, -quantity, Integer::sum);
+                    decrements.merge(productId, quantity, Integer::sum);
+                });
+                applied.add(event.getOrderId());
+            } else {
+                rejected.add(event);
+            }
         }
 
-        // 3. Reduce the stock
-        product.setStockQuantity(product.getStockQuantity() - quantity);
-        if (product.getStockQuantity() == 0) {
-            productRepository.delete(product);
-        } else {
-            Product updatedProduct = productRepository.save(product);
-            // Check for low stock notification
-            logger.info("Calling notification service for stock reduction - product: {} with stock: {}", 
-                       updatedProduct.getName(), updatedProduct.getStockQuantity());
-            notificationService.checkLowStockAndNotify(updatedProduct);
+        if (!rejected.isEmpty()) {
+            processedOrderEventRepository.markRejected(rejected.stream().map(OrderPlacedEvent::getOrderId).toList());
+        }
+        if (!decrements.isEmpty()) {
+            stockMutationRepository.applyDecrements(decrements).forEach(this::afterStockDecrement);
+        }
+        return new OrderBatchResult(applied, rejected, duplicates);
+    }
+
+    private void afterStockDecrement(Long productId, StockChange remaining) {
+        if (remaining.quantity() == 0) {
+            productRepository.deleteById(productId);
+            eventPublisher.publishProductChanged(productId, ProductChangedEvent.ChangeType.DELETED);
+            return;
         }
+        // LowStockDetector picks up the new level from this event
+        eventPublisher.publishStockChanged(productId, remaining.quantity(), remaining.version());
     }
 
 
@@ -2,10 +2,13 @@ package com.mwaf.productservice.service;
 
 import com.mwaf.productservice.dto.ReviewRequest;
 import com.mwaf.productservice.dto.ReviewSummaryResponse;
+import com.mwaf.productservice.event.ProductChangedEvent;
 import com.mwaf.productservice.model.Product;
 import com.mwaf.productservice.model.ProductReview;
 import com.mwaf.productservice.repository.ProductRepository;
 import com.mwaf.productservice.repository.ProductReviewRepository;
+import com.mwaf.productservice.repository.ReviewStatsRepository;
+import com.mwaf.productservice.repository.ReviewStatsRepository.ReviewStats;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -14,7 +17,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Service
@@ -22,10 +24,14 @@ public class ReviewService {
 
     private final ProductReviewRepository reviewRepository;
     private final ProductRepository productRepository;
+    private final ProductEventPublisher eventPublisher;
+    private final ReviewStatsRepository reviewStatsRepository;
 
-    public ReviewService(ProductReviewRepository reviewRepository, ProductRepository productRepository) {
+    public ReviewService(ProductReviewRepository reviewRepository, ProductRepository productRepository, ProductEventPublisher eventPublisher, ReviewStatsRepository reviewStatsRepository) {
         this.reviewRepository = reviewRepository;
         this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.reviewStatsRepository = reviewStatsRepository;
     }
 
     @Transactional
@@ -39,11 +45,12 @@ public class ReviewService {
 
         if (existingReview != null) {
             // Update existing review
+            Integer oldRating = existingReview.getRating();
             existingReview.setRating(request.getRating());
             existingReview.setTitle(request.getTitle());
             existingReview.setComment(request.getComment());
             ProductReview savedReview = reviewRepository.save(existingReview);
-            updateProductAverageRating(product);
+            updateProductAverageRating(productId, oldRating, savedReview.getRating());
             return savedReview;
         } else {
             // Create new review
@@ -55,7 +62,7 @@ public class ReviewService {
             newReview.setComment(request.getComment());
             
             ProductReview savedReview = reviewRepository.save(newReview);
-            updateProductAverageRating(product);
+            updateProductAverageRating(productId, null, savedReview.getRating());
             return savedReview;
         }
     }
@@ -68,26 +75,39 @@ public class ReviewService {
     }
 
     public ReviewSummaryResponse getReviewSummary(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
-
-        Long count = reviewRepository.getReviewCountByProduct(product);
-        Double avgRating = reviewRepository.getAverageRatingByProduct(product);
-        BigDecimal averageRating = avgRating != null ? 
-                BigDecimal.valueOf(avgRating).setScale(1, RoundingMode.HALF_UP) : 
-                BigDecimal.ZERO;
+        ReviewStats stats = reviewStatsRepository.find(productId).orElse(null);
+        if (stats == null) {
+            // No stats row yet means no reviews, unless the product itself is missing
+            if (!productRepository.existsById(productId)) {
+                throw new RuntimeException("Product not found with id: " + productId);
+            }
+            return new ReviewSummaryResponse(0L, BigDecimal.ZERO, new HashMap<>());
+        }
 
-        // Get rating breakdown
+        BigDecimal averageRating = average(stats);
         Map<Integer, Long> breakdown = new HashMap<>();
-        List<Object[]> breakdownData = reviewRepository.getRatingBreakdownByProduct(product);
-        
-        for (Object[] data : breakdownData) {
-            Integer rating = (Integer) data[0];
-            Long countForRating = (Long) data[1];
-            breakdown.put(rating, countForRating);
+        for (int rating = 1; rating <= 5; rating++) {
+            if (stats.countFor(rating) > 0) {
+                breakdown.put(rating, stats.countFor(rating));
+            }
         }
 
-        return new ReviewSummaryResponse(count, averageRating, breakdown);
+        return new ReviewSummaryResponse(stats.count(), averageRating != null ? averageRating : BigDecimal.ZERO, breakdown);
+    }
+
+    /**
+     * Recomputes a product's review stats from its reviews, repairing any
+     * drift in the incrementally maintained row.
+     *
+     * @return true if anything had to be corrected
+     */
+    @Transactional
+    public boolean rebuildReviewStats(Long productId) {
+        boolean corrected = reviewStatsRepository.rebuild(productId);
+        if (corrected) {
+            eventPublisher.publishProductChanged(productId, ProductChangedEvent.ChangeType.UPDATED);
+        }
+        return corrected;
     }
 
     @Transactional
@@ -109,16 +129,22 @@ public class ReviewService {
         }
 
         reviewRepository.delete(review);
-        updateProductAverageRating(product);
+        updateProductAverageRating(productId, review.getRating(), null);
     }
 
-    private void updateProductAverageRating(Product product) {
-        Double avgRating = reviewRepository.getAverageRatingByProduct(product);
-        if (avgRating != null) {
-            product.setAverageRating(BigDecimal.valueOf(avgRating).setScale(1, RoundingMode.HALF_UP));
-        } else {
-            product.setAverageRating(null);
+    // Applies the rating change to the stats row instead of re-averaging every review.
+    // The average is written in SQL: saving the Product would write back every column it read.
+    private void updateProductAverageRating(Long productId, Integer oldRating, Integer newRating) {
+        reviewStatsRepository.applyDelta(productId, oldRating, newRating);
+        reviewStatsRepository.syncAverage(productId);
+        eventPublisher.publishProductChanged(productId, ProductChangedEvent.ChangeType.UPDATED);
+    }
+
+    private static BigDecimal average(ReviewStats stats) {
+        if (stats.count() <= 0) {
+            return null;
         }
-        productRepository.save(product);
+        return BigDecimal.valueOf(stats.ratingSum())
+                .divide(BigDecimal.valueOf(stats.count()), 1, RoundingMode.HALF_UP);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package com.mwaf.productservice.service;
+
+import com.mwaf.productservice.repository.ReviewStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Periodically recomputes every product's review stats from the reviews
+ * themselves, so drift in the incrementally maintained rows (manual SQL,
+ * a bug in a past release) does not persist. Each product is rebuilt in its
+ * own short transaction to avoid holding locks across the whole catalog.
+ */
+@Component
+public class ReviewStatsRebuildJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewStatsRebuildJob.class);
+
+    private final ReviewStatsRepository reviewStatsRepository;
+    private final ReviewService reviewService;
+    private final int batchSize;
+
+    public ReviewStatsRebuildJob(ReviewStatsRepository reviewStatsRepository,
+                                 ReviewService reviewService,
+                                 @Value("${reviews.stats.rebuild-batch-size:500}") int batchSize) {
+        this.reviewStatsRepository = reviewStatsRepository;
+        this.reviewService = reviewService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${reviews.stats.rebuild-cron:0 30 3 * * *}")
+    public void rebuildAll() {
+        long started = System.currentTimeMillis();
+        int checked = 0;
+        int corrected = 0;
+        long lastId = 0;
+        List<Long> productIds;
+        do {
+            productIds = reviewStatsRepository.findProductIdsAfter(lastId, batchSize);
+            for (Long productId : productIds) {
+                try {
+                    if (reviewService.rebuildReviewStats(productId)) {
+                        corrected++;
+                    }
+                } catch (Exception e) {
+                    // Typically the product was deleted while the job ran
+                    logger.warn("Could not rebuild review stats for product {}: {}", productId, e.getMessage());
+                }
+                checked++;
+                lastId = productId;
+            }
+        } while (productIds.size() == batchSize);
+
+        logger.info("Rebuilt review stats for {} products, corrected {} in {} ms",
+                checked, corrected, System.currentTimeMillis() - started);
+    }
+}
@@ -0,0 +1,121 @@
+// Load test for NotificationService WebSocket fan-out.
+//
+// Opens many STOMP clients the way the frontend does (one /topic/user.{id}
+// subscription each, plus some admins on /topic/admin.notifications), then
+// asks NotificationService to broadcast and reports delivery and latency.
+// Some clients can stop reading from their socket to check that slow
+// consumers are disconnected without holding up everyone else.
+//
+// NotificationService must run with the "loadtest" profile, which provides
+// the broadcast endpoint. Settings come from the environment, e.g.:
+//   CLIENTS=2000 USERS=1000 ADMINS=20 SLOW=10 ROUNDS=20 node ws-load-test.mjs
+
+import { Client } from '@stomp/stompjs';
+import { WebSocket } from 'ws';
+
+Object.assign(global, { WebSocket });
+
+const env = (name, fallback) => process.env[name] ?? fallback;
+
+const WS_URL = env('WS_URL', 'ws://localhost:8080/ws');
+const TRIGGER_URL = env('TRIGGER_URL', 'http://localhost:8086/api/notifications/loadtest/broadcast');
+const CLIENTS = Number(env('CLIENTS', 500));
+const USERS = Number(env('USERS', 250));
+const ADMINS = Number(env('ADMINS', 5));
+const SLOW = Number(env('SLOW', 0));
+const ROUNDS = Number(env('ROUNDS', 10));
+const CONNECT_BATCH = Number(env('CONNECT_BATCH', 100));
+const TIMEOUT_MS = Number(env('TIMEOUT_MS', 60000));
+
+const connectTimes = [];
+const latencies = [];
+let received = 0;
+let slowClosed = 0;
+
+function percentile(values, p) {
+    if (values.length === 0) return 0;
+    const sorted = [...values].sort((a, b) => a - b);
+    return sorted[Math.min(sorted.length - 1, Math.floor(sorted.length * p))];
+}
+
+function openClient(index) {
+    const isAdmin = index < ADMINS;
+    const isSlow = index >= ADMINS && index < ADMINS + SLOW;
+    const userId = (index % USERS) + 1;
+    const started = Date.now();
+    let socket;
+
+    return new Promise((resolve, reject) => {
+        const client = new Client({
+            webSocketFactory: () => (socket = new WebSocket(WS_URL)),
+            reconnectDelay: 0,
+            onConnect: () => {
+                connectTimes.push(Date.now() - started);
+                const topic = isAdmin ? '/topic/admin.notifications' : `/topic/user.${userId}`;
+                client.subscribe(topic, (message) => {
+                    if (isSlow) return;
+                    const notification = JSON.parse(message.body);
+                    latencies.push(Date.now() - Number(notification.content));
+                    received++;
+                });
+                if (isSlow) {
+                    // Stop reading; the server should give up on this client, not wait for it
+                    socket._socket.pause();
+                }
+                resolve({ client, isSlow });
+            },
+            onWebSocketClose: () => {
+                if (isSlow) slowClosed++;
+            },
+            onStompError: (frame) => reject(new Error(frame.headers['message'])),
+            onWebSocketError: (err) => reject(err)
+        });
+        client.activate();
+    });
+}
+
+async function main() {
+    console.log(`Connecting ${CLIENTS} clients (${ADMINS} admins, ${SLOW} slow) to ${WS_URL}...`);
+    const clients = [];
+    for (let i = 0; i < CLIENTS; i += CONNECT_BATCH) {
+        const batch = [];
+        for (let j = i; j < Math.min(i + CONNECT_BATCH, CLIENTS); j++) {
+            batch.push(openClient(j));
+        }
+        clients.push(...await Promise.all(batch));
+    }
+    console.log(`Connected. connect p50=${percentile(connectTimes, 0.5)}ms p99=${percentile(connectTimes, 0.99)}ms`);
+
+    // Every user topic gets ROUNDS messages; each fast client sees those of its user plus admin broadcasts
+    const fastUserClients = CLIENTS - ADMINS - SLOW;
+    const expected = fastUserClients * ROUNDS + ADMINS * ROUNDS;
+
+    const toUserId = Math.min(USERS, CLIENTS);
+    const started = Date.now();
+    const response = await fetch(`${TRIGGER_URL}?fromUserId=1&toUserId=${toUserId}&rounds=${ROUNDS}&admins=${ADMINS > 0}`,
+        { method: 'POST' });
+    if (!response.ok) {
+        throw new Error(`Broadcast request failed: ${response.status} ${await response.text()}`);
+    }
+    console.log(`Server accepted broadcast: ${JSON.stringify(await response.json())}`);
+
+    while (received < expected && Date.now() - started < TIMEOUT_MS) {
+        await new Promise((r) => setTimeout(r, 100));
+    }
+    const elapsed = Date.now() - started;
+
+    console.log(`Received ${received}/${expected} messages in ${elapsed}ms (${Math.round(received / (elapsed / 1000))} msg/s)`);
+    console.log(`Latency p50=${percentile(latencies, 0.5)}ms p95=${percentile(latencies, 0.95)}ms p99=${percentile(latencies, 0.99)}ms max=${percentile(latencies, 1)}ms`);
+    if (SLOW > 0) {
+        console.log(`Slow clients disconnected by the server: ${slowClosed}/${SLOW}`);
+    }
+
+    // Paused sockets may never finish a close handshake, so only wait for the others
+    await Promise.all(clients.filter(({ isSlow }) => !isSlow).map(({ client }) => client.deactivate()));
+    process.exit(received >= expected ? 0 : 1);
+}
+
+main().catch((err) => {
+    console.error('Load test failed:', err);
+    process.exit(1);
+});